@@ -0,0 +1,24 @@
+package Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler attached, so every result also reports the allocation rate.
+ * Takes the same arguments as the JMH command line, for example a regular expression to run only some of the benchmarks.
+ */
+public class BenchmarkRunner
+{
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException
+	{
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder()
+				.parent(commandLineOptions)
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
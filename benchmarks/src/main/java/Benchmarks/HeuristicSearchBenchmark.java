@@ -0,0 +1,54 @@
+package Benchmarks;
+
+import AISearch.AISearch;
+import AISearch.AbstractSearchNode;
+import AISearch.GoalNodeNotFoundException;
+import SlidingTilePuzzle.Puzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heuristic searches of 15 puzzles whose shortest solutions get longer.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HeuristicSearchBenchmark
+{
+	@Param({"20", "30", "40"})
+	public int solutionDepth;
+
+	private Puzzle puzzle;
+
+	@Setup
+	public void setUp()
+	{
+		puzzle = Instances.withSolutionDepth(4, solutionDepth);
+	}
+
+	@Benchmark
+	public AbstractSearchNode heuristicSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyHeuristicSearch(puzzle, solutionDepth);
+	}
+
+	@Benchmark
+	public AbstractSearchNode iterativeDeepeningHeuristicSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyIterativeDeepeningHeuristicSearch(puzzle, solutionDepth);
+	}
+}
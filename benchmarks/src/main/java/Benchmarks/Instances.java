@@ -0,0 +1,54 @@
+package Benchmarks;
+
+import AISearch.AISearch;
+import AISearch.GoalNodeNotFoundException;
+import SlidingTilePuzzle.Puzzle;
+
+import java.util.Random;
+
+/**
+ * Fixed puzzle instances for the benchmarks, so that every run searches the same states.
+ */
+final class Instances
+{
+	private static final long SEED = 42;
+
+	private Instances()
+	{
+	}
+
+	/**
+	 * Walks randomly away from the goal state until the shortest solution has exactly the given length.
+	 * Every move changes the length of the shortest solution by one, so the walk cannot step over the length wanted,
+	 * and the walk is seeded so the same puzzle is returned every time.
+	 *
+	 * @param sideLength The number of cells along each side.
+	 * @param depth      The length of the shortest solution.
+	 * @return The puzzle, with linear conflicts enabled.
+	 */
+	static Puzzle withSolutionDepth(int sideLength, int depth)
+	{
+		Puzzle puzzle = new Puzzle(sideLength, 0);
+		puzzle.setLinearConflictEnabled(true);
+		Random random = new Random(SEED);
+		int lastMove = -1;
+		int solutionDepth = 0;
+		while (solutionDepth != depth)
+		{
+			int move = random.nextInt(puzzle.getMoveCount());
+			if ((lastMove >= 0 && move == puzzle.getInverseMove(lastMove)) || !puzzle.applyMove(move))
+			{
+				continue;
+			}
+			lastMove = move;
+			try
+			{
+				solutionDepth = AISearch.applyIterativeDeepeningHeuristicSearch(puzzle, depth).getNodeDepth();
+			} catch (GoalNodeNotFoundException e)
+			{
+				throw new IllegalStateException("The shortest solution grew by more than one move.", e);
+			}
+		}
+		return puzzle;
+	}
+}
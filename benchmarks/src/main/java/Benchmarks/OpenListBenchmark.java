@@ -0,0 +1,67 @@
+package Benchmarks;
+
+import AISearch.AISearch;
+import AISearch.AbstractSearchNode;
+import AISearch.BinaryHeapOpenList;
+import AISearch.BucketOpenList;
+import AISearch.GoalNodeNotFoundException;
+import AISearch.OpenList;
+import AISearch.PairingHeapOpenList;
+import AISearch.SearchOptions;
+import SlidingTilePuzzle.Puzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A* searches of 15 puzzles with each of the open list implementations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpenListBenchmark
+{
+	@Param({"30", "40"})
+	public int solutionDepth;
+
+	@Param({"binaryHeap", "pairingHeap", "bucketLifo", "bucketFifo"})
+	public String openList;
+
+	private Puzzle puzzle;
+	private SearchOptions options;
+
+	@Setup
+	public void setUp()
+	{
+		puzzle = Instances.withSolutionDepth(4, solutionDepth);
+		Supplier<OpenList> factory = switch (openList)
+		{
+			case "binaryHeap" -> BinaryHeapOpenList::new;
+			case "pairingHeap" -> PairingHeapOpenList::new;
+			case "bucketLifo" -> () -> new BucketOpenList(true);
+			case "bucketFifo" -> () -> new BucketOpenList(false);
+			default -> throw new IllegalArgumentException("Unknown open list: " + openList);
+		};
+		options = new SearchOptions().setOpenListFactory(factory);
+	}
+
+	@Benchmark
+	public AbstractSearchNode heuristicSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyHeuristicSearch(puzzle, solutionDepth, options);
+	}
+}
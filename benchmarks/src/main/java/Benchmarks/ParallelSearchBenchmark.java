@@ -0,0 +1,69 @@
+package Benchmarks;
+
+import AISearch.AISearch;
+import AISearch.AbstractSearchNode;
+import AISearch.GoalNodeNotFoundException;
+import AISearch.SearchOptions;
+import SlidingTilePuzzle.Puzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parallel searches run with an increasing number of threads, which gives their speedup curves
+ * when compared against the results for a single thread.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark
+{
+	@Param({"1", "2", "4", "8"})
+	public int threadCount;
+
+	private Puzzle fifteenPuzzle;
+	private Puzzle eightPuzzle;
+	private ForkJoinPool pool;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		fifteenPuzzle = Instances.withSolutionDepth(4, 36);
+		eightPuzzle = Instances.withSolutionDepth(3, 24);
+		pool = new ForkJoinPool(threadCount);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public AbstractSearchNode parallelHeuristicSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyParallelHeuristicSearch(fifteenPuzzle, 36, threadCount, new SearchOptions());
+	}
+
+	@Benchmark
+	public AbstractSearchNode parallelBreadthFirstSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyParallelBreadthFirstSearch(eightPuzzle, 24, pool);
+	}
+}
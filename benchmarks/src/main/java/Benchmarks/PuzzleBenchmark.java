@@ -0,0 +1,90 @@
+package Benchmarks;
+
+import AISearch.AbstractSearchNode;
+import SlidingTilePuzzle.Puzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The operations every search calls on each node, on boards small enough to be packed into a long and on a larger one that is not.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PuzzleBenchmark
+{
+	@Param({"3", "4", "5"})
+	public int sideLength;
+
+	@Param({"false", "true"})
+	public boolean linearConflictEnabled;
+
+	private Puzzle puzzle;
+	private Puzzle samePuzzle;
+
+	@Setup
+	public void setUp()
+	{
+		puzzle = new Puzzle(sideLength, 1000, 42);
+		puzzle.setLinearConflictEnabled(linearConflictEnabled);
+		samePuzzle = new Puzzle(sideLength, 1000, 42);
+	}
+
+	@Benchmark
+	public ArrayList<AbstractSearchNode> generateChildNodes()
+	{
+		return puzzle.generateChildNodes();
+	}
+
+	@Benchmark
+	public void forEachChildNode(Blackhole blackhole)
+	{
+		puzzle.forEachChildNode(blackhole::consume);
+	}
+
+	@Benchmark
+	public Integer calculateHeuristic()
+	{
+		return puzzle.calculateHeuristic();
+	}
+
+	@Benchmark
+	public boolean equalsNode()
+	{
+		return puzzle.equalsNode(samePuzzle);
+	}
+
+	@Benchmark
+	public boolean inGoalState()
+	{
+		return puzzle.inGoalState();
+	}
+
+	@Benchmark
+	public int stateHash()
+	{
+		return puzzle.stateHash();
+	}
+
+	@Benchmark
+	public boolean isSolvable()
+	{
+		return puzzle.isSolvable();
+	}
+}
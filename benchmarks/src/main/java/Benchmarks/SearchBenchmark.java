@@ -0,0 +1,95 @@
+package Benchmarks;
+
+import AISearch.AISearch;
+import AISearch.AbstractSearchNode;
+import AISearch.GoalNodeNotFoundException;
+import AISearch.SearchOptions;
+import SlidingTilePuzzle.Puzzle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete searches of 8 puzzles whose shortest solutions get longer, so the cost of each strategy can be followed as the search space grows.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark
+{
+	private static final long STATE_TABLE_MEMORY_LIMIT = 256L << 20;
+	private static final long RANDOM_SEED = 42;
+
+	@Param({"8", "14", "20"})
+	public int solutionDepth;
+
+	private Puzzle puzzle;
+
+	@Setup
+	public void setUp()
+	{
+		puzzle = Instances.withSolutionDepth(3, solutionDepth);
+	}
+
+	@Benchmark
+	public AbstractSearchNode breadthFirstSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyBreadthFirstSearch(puzzle, solutionDepth);
+	}
+
+	@Benchmark
+	public AbstractSearchNode breadthFirstSearchWithStateTable() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyBreadthFirstSearch(puzzle, true, solutionDepth, new SearchOptions().setStateTableMemoryLimit(STATE_TABLE_MEMORY_LIMIT));
+	}
+
+	@Benchmark
+	public AbstractSearchNode depthFirstSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyDepthFirstSearch(puzzle, true, solutionDepth, new SearchOptions().setRandomSeed(RANDOM_SEED));
+	}
+
+	@Benchmark
+	public AbstractSearchNode guidedDepthFirstSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyGuidedDepthFirstSearch(puzzle, true, solutionDepth, new SearchOptions().setRandomSeed(RANDOM_SEED));
+	}
+
+	@Benchmark
+	public AbstractSearchNode greedyBestFirstSearch() throws GoalNodeNotFoundException
+	{
+		// the solution found may be longer than the shortest one, so the depth is not limited
+		return AISearch.applyGreedyBestFirstSearch(puzzle, Integer.MAX_VALUE, new SearchOptions());
+	}
+
+	@Benchmark
+	public AbstractSearchNode heuristicSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyHeuristicSearch(puzzle, solutionDepth);
+	}
+
+	@Benchmark
+	public AbstractSearchNode heuristicSearchWithStateTable() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyHeuristicSearch(puzzle, solutionDepth, new SearchOptions().setStateTableMemoryLimit(STATE_TABLE_MEMORY_LIMIT));
+	}
+
+	@Benchmark
+	public AbstractSearchNode iterativeDeepeningHeuristicSearch() throws GoalNodeNotFoundException
+	{
+		return AISearch.applyIterativeDeepeningHeuristicSearch(puzzle, solutionDepth);
+	}
+}
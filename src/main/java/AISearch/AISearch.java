@@ -1,13 +1,18 @@
 package AISearch;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
-import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public class AISearch
 {
+	// children are pushed in this order, so the one with the lowest heuristic value is taken from the stack first
+	private static final Comparator<AbstractSearchNode> BY_HEURISTIC_DESCENDING = Comparator.comparingInt(AbstractSearchNode::getHeuristicValue).reversed();
+
 	/**
 	 * Applies depth first search on the node given to it.
 	 * Any nodes that satisfy the node equality function on nodes that have already been expanded are skipped.
@@ -19,18 +24,10 @@ public class AISearch
 	 */
 	public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode) throws GoalNodeNotFoundException
 	{
-		try
-		{
-			//return applyDepthFirstSearch(originNode, true, Integer.MAX_VALUE);
-			return applyDepthFirstSearch(originNode, Integer.MAX_VALUE);
-		} catch (GoalNodeNotFoundException e)
-		{
-			throw new GoalNodeNotFoundException("No solution found at the maximum depth limit.");
-		}
+		return applyDepthFirstSearch(originNode, true, Integer.MAX_VALUE);
 	}
 
-	/*
-	/
+	/**
 	 * Applies depth first search on the node given to it.
 	 * Nodes will be expanded to a maximum depth of Integer.MAX_VALUE.
 	 *
@@ -38,16 +35,10 @@ public class AISearch
 	 * @param pruneExpandedNodes If this flag is set then then any nodes that satisfy the node equality function on nodes that have already been expanded are skipped.
 	 * @return The first node found that matches the goal state.
 	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
-	 /
+	 */
 	public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes) throws GoalNodeNotFoundException
 	{
-		try
-		{
-			return applyDepthFirstSearch(originNode, pruneExpandedNodes, Integer.MAX_VALUE);
-		} catch (GoalNodeNotFoundException e)
-		{
-			throw new GoalNodeNotFoundException("No solution found at the maximum depth limit.");
-		}
+		return applyDepthFirstSearch(originNode, pruneExpandedNodes, Integer.MAX_VALUE);
 	}
 
 	/**
@@ -59,15 +50,16 @@ public class AISearch
 	 * @return The first node found that matches the goal state.
 	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
 	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
-	 /
+	 */
 	public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
 	{
 		return applyDepthFirstSearch(originNode, true, depthLimit);
 	}
 
-
-	/
+	/**
 	 * Applies depth first search on the node given to it.
+	 * When pruning, a node is only skipped if a node with an equal state has already been reached at the same or a shallower depth,
+	 * so a shallower path to a state is still explored and no solution within the depth limit is missed.
 	 *
 	 * @param originNode         The root node of the depth first search.
 	 * @param pruneExpandedNodes If this flag is set then then any nodes that satisfy the node equality function on
@@ -78,72 +70,122 @@ public class AISearch
 	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
 	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
 	 */
-	//public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyDepthFirstSearch(originNode, pruneExpandedNodes, depthLimit, new SearchOptions());
+	}
 
 	/**
 	 * Applies depth first search on the node given to it.
+	 * When pruning, a node is only skipped if a node with an equal state has already been reached at the same or a shallower depth.
+	 * The children of each node are shuffled before they are added to the fringe, with the random seed of the options if one is set.
 	 *
-	 * @param originNode The root node of the depth first search.
-	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state. Any nodes at this depth will not be added to the fringe.
+	 * @param originNode         The root node of the depth first search.
+	 * @param pruneExpandedNodes If this flag is set then then any nodes that satisfy the node equality function on
+	 *                           nodes that have already been expanded are skipped.
+	 * @param depthLimit         The depth of the deepest node that will be checked if it is in the goal state.
+	 *                           Any nodes at this depth will not be added to the fringe.
+	 * @param options            The settings of the search, which also hold its statistics once it finishes.
 	 * @return The first node found that matches the goal state.
 	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
 	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
 	 */
-	public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	public static AbstractSearchNode applyDepthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
 	{
 		if (depthLimit < 1)
 		{
 			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
 		}
-		originNode.setNodeDepth(0);
-		if (originNode.inGoalState())
+		return runSearch(originNode, depthLimit, false, options, statistics -> depthFirstSearch(originNode, pruneExpandedNodes, false, depthLimit, options, statistics));
+	}
+
+	/**
+	 * Applies depth first search on the node given to it, expanding the children of each node in order of their heuristic value,
+	 * lowest first. Children with equal heuristic values are shuffled as in {@link #applyDepthFirstSearch(AbstractSearchNode, boolean, int, SearchOptions)}.
+	 * The heuristic only changes the order the nodes are explored in, so the solution found is not the shortest,
+	 * but it is usually found after far fewer expansions.
+	 *
+	 * @param originNode         The root node of the depth first search.
+	 * @param pruneExpandedNodes If this flag is set then then any nodes that satisfy the node equality function on
+	 *                           nodes that have already been expanded are skipped.
+	 * @param depthLimit         The depth of the deepest node that will be checked if it is in the goal state.
+	 *                           Any nodes at this depth will not be added to the fringe.
+	 * @param options            The settings of the search, which also hold its statistics once it finishes.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyGuidedDepthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
 		{
-			return originNode;
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
 		}
+		return runSearch(originNode, depthLimit, false, options, statistics -> depthFirstSearch(originNode, pruneExpandedNodes, true, depthLimit, options, statistics));
+	}
+
+	private static AbstractSearchNode depthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, boolean guided, int depthLimit, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		SearchListener listener = options.getListener();
 		ArrayList<AbstractSearchNode> fringe = new ArrayList<>();
-		//ArrayList<AbstractSearchNode> expandedNodes = new ArrayList<>();
+		NodeHashMap<AbstractSearchNode> expandedNodes = new NodeHashMap<>();
 		fringe.add(originNode);
+		if (pruneExpandedNodes)
+		{
+			expandedNodes.put(originNode, originNode);
+		}
+		boolean compactPaths = pruneExpandedNodes && useCompactPaths(originNode, options);
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = childCollector(newNodes, compactPaths);
+		Random random = options.createRandom();
 		AbstractSearchNode currentNode;
 		while (!fringe.isEmpty())
 		{
 			currentNode = fringe.remove(fringe.size() - 1);
-			/*
-			if (pruneExpandedNodes)
+			options.checkCancelled();
+			newNodes.clear();
+			currentNode.forEachChildNode(collectChild);
+			Collections.shuffle(newNodes, random);
+			if (guided)
+			{
+				newNodes.sort(BY_HEURISTIC_DESCENDING);
+			}
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
 			{
-				expandedNodes.add(currentNode);
+				listener.nodeExpanded(currentNode, statistics);
 			}
-			 */
-			ArrayList<AbstractSearchNode> newNodes = currentNode.generateChildNodes();
-			Collections.shuffle(newNodes);
 			for (AbstractSearchNode node : newNodes)
 			{
 				if (node.inGoalState())
 				{
-					return node;
+					return compactPaths ? SearchSolution.rebuildPath(originNode, node, state -> expandedNodes.get(state).getLastMove()) : node;
 				}
 				boolean addToFringe = true;
-				if (!(currentNode.getNodeDepth() < depthLimit - 1) || node.equalsNode(currentNode))
+				if (!(currentNode.getNodeDepth() < depthLimit - 1))
 				{
 					addToFringe = false;
-				}
-				/*
-				else if (pruneExpandedNodes)
+				} else if (pruneExpandedNodes)
 				{
-					for (AbstractSearchNode exNode : expandedNodes)
+					AbstractSearchNode exNode = expandedNodes.get(node);
+					if (exNode != null && exNode.getNodeDepth() <= node.getNodeDepth())
 					{
-						if (node.equalsNode(exNode))
-						{
-							addToFringe = false;
-							break;
-						}
+						addToFringe = false;
+					} else
+					{
+						expandedNodes.put(node, node);
 					}
 				}
-				 */
 				if (addToFringe)
 				{
 					fringe.add(node);
+				} else if (currentNode.getNodeDepth() < depthLimit - 1)
+				{
+					statistics.duplicatesPruned++;
 				}
 			}
+			statistics.updateFringeSize(fringe.size());
+			statistics.updateClosedSetSize(expandedNodes.size());
 		}
 		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
 	}
@@ -159,13 +201,7 @@ public class AISearch
 	 */
 	public static AbstractSearchNode applyBreadthFirstSearch(AbstractSearchNode originNode) throws GoalNodeNotFoundException
 	{
-		try
-		{
-			return applyBreadthFirstSearch(originNode, true, Integer.MAX_VALUE);
-		} catch (GoalNodeNotFoundException e)
-		{
-			throw new GoalNodeNotFoundException("No solution found at the maximum depth limit.");
-		}
+		return applyBreadthFirstSearch(originNode, true, Integer.MAX_VALUE);
 	}
 
 	/**
@@ -180,13 +216,7 @@ public class AISearch
 	 */
 	public static AbstractSearchNode applyBreadthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes) throws GoalNodeNotFoundException
 	{
-		try
-		{
-			return applyBreadthFirstSearch(originNode, pruneExpandedNodes, Integer.MAX_VALUE);
-		} catch (GoalNodeNotFoundException e)
-		{
-			throw new GoalNodeNotFoundException("No solution found at the maximum depth limit.");
-		}
+		return applyBreadthFirstSearch(originNode, pruneExpandedNodes, Integer.MAX_VALUE);
 	}
 
 	/**
@@ -218,110 +248,928 @@ public class AISearch
 	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
 	 */
 	public static AbstractSearchNode applyBreadthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyBreadthFirstSearch(originNode, pruneExpandedNodes, depthLimit, new SearchOptions());
+	}
+
+	/**
+	 * Applies breadth first search on the node given to it.
+	 * If the options set a state table memory limit and the origin node has a packed state, expanded states are kept in an off heap table.
+	 *
+	 * @param originNode         The root node of the breadth first search.
+	 * @param pruneExpandedNodes If this flag is set then then any nodes that satisfy the node equality function on
+	 *                           nodes that have already been expanded are skipped.
+	 * @param depthLimit         The depth of the deepest node that will be checked if it is in the goal state.
+	 *                           Any nodes at this depth will not be added to the fringe.
+	 * @param options            The settings of the search, which also hold its statistics once it finishes.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyBreadthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
 	{
 		if (depthLimit < 1)
 		{
 			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
 		}
-		originNode.setNodeDepth(0);
-		if (originNode.inGoalState())
+		return runSearch(originNode, depthLimit, true, options, statistics ->
 		{
-			return originNode;
-		}
-		ArrayList<AbstractSearchNode> fringe = new ArrayList<>();
-		ArrayList<AbstractSearchNode> expandedNodes = new ArrayList<>();
+			// the table is closed as soon as the search finishes, so its memory does not wait for the garbage collector
+			try (OffHeapStateTable stateTable = useStateTable(originNode, options) ? new OffHeapStateTable(options.getStateTableMemoryLimit()) : null)
+			{
+				return breadthFirstSearch(originNode, pruneExpandedNodes, depthLimit, stateTable, options, statistics);
+			}
+		});
+	}
+
+	/**
+	 * Breadth first search that keeps its closed set in the given state table, or in a map of nodes if the table is null.
+	 */
+	private static AbstractSearchNode breadthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, OffHeapStateTable stateTable,
+			SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		SearchListener listener = options.getListener();
+		ArrayDeque<AbstractSearchNode> fringe = new ArrayDeque<>();
+		NodeHashMap<AbstractSearchNode> expandedNodes = new NodeHashMap<>();
 		fringe.add(originNode);
+		if (pruneExpandedNodes && stateTable != null)
+		{
+			stateTable.put(originNode.getPackedState(), 0, -1);
+		} else if (pruneExpandedNodes)
+		{
+			expandedNodes.put(originNode, originNode);
+		}
+		boolean compactPaths = pruneExpandedNodes && useCompactPaths(originNode, options);
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = childCollector(newNodes, compactPaths);
 		AbstractSearchNode currentNode;
+		int layerDepth = 0;
+		long layerSize = 0;
 		while (!fringe.isEmpty())
 		{
-			currentNode = fringe.remove(0);
-			if (pruneExpandedNodes)
+			currentNode = fringe.poll();
+			options.checkCancelled();
+			if (currentNode.getNodeDepth() > layerDepth)
 			{
-				expandedNodes.add(currentNode);
+				if (listener != null)
+				{
+					listener.layerCompleted(layerDepth, layerSize, statistics);
+				}
+				layerDepth = currentNode.getNodeDepth();
+				layerSize = 0;
+			}
+			layerSize++;
+			newNodes.clear();
+			currentNode.forEachChildNode(collectChild);
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
+			{
+				listener.nodeExpanded(currentNode, statistics);
 			}
-			ArrayList<AbstractSearchNode> newNodes = currentNode.generateChildNodes();
 			for (AbstractSearchNode node : newNodes)
 			{
 				if (node.inGoalState())
 				{
-					return node;
+					if (!compactPaths)
+					{
+						return node;
+					}
+					return stateTable != null
+							? SearchSolution.rebuildPath(originNode, node, state -> OffHeapStateTable.parentMoveOf(stateTable.get(state.getPackedState())))
+							: SearchSolution.rebuildPath(originNode, node, state -> expandedNodes.get(state).getLastMove());
 				}
 				boolean addToFringe = true;
-				if (!(currentNode.getNodeDepth() < depthLimit - 1) || node.equalsNode(currentNode))
+				if (!(currentNode.getNodeDepth() < depthLimit - 1))
 				{
 					addToFringe = false;
 				} else if (pruneExpandedNodes)
 				{
-					for (AbstractSearchNode exNode : expandedNodes)
-					{
-						if (node.equalsNode(exNode))
-						{
-							addToFringe = false;
-							break;
-						}
-					}
+					// nodes are added to the closed set when they are generated so a state already waiting in the fringe is not queued twice
+					addToFringe = stateTable != null
+							? stateTable.putIfAbsent(node.getPackedState(), node.getNodeDepth(), node.getLastMove())
+							: expandedNodes.putIfAbsent(node, node);
 				}
 				if (addToFringe)
 				{
 					fringe.add(node);
+				} else if (currentNode.getNodeDepth() < depthLimit - 1)
+				{
+					statistics.duplicatesPruned++;
 				}
 			}
+			statistics.updateFringeSize(fringe.size());
+			statistics.updateClosedSetSize(stateTable != null ? stateTable.size() : expandedNodes.size());
 		}
 		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
 	}
 
-	//public static AbstractSearchNode applyHeuristicSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	private static boolean useStateTable(AbstractSearchNode originNode, SearchOptions options)
+	{
+		return options.getStateTableMemoryLimit() > 0 && originNode.hasPackedState();
+	}
+
+	private static boolean useCompactPaths(AbstractSearchNode originNode, SearchOptions options)
+	{
+		return options.isCompactPaths() && originNode.supportsInPlaceMoves();
+	}
+
+	/**
+	 * Returns the consumer that collects the children of a node, detaching them from their parent first if paths are rebuilt from the closed set.
+	 */
+	private static Consumer<AbstractSearchNode> childCollector(ArrayList<AbstractSearchNode> newNodes, boolean compactPaths)
+	{
+		if (!compactPaths)
+		{
+			return newNodes::add;
+		}
+		return node ->
+		{
+			node.detachParentNode();
+			newNodes.add(node);
+		};
+	}
+
+	/**
+	 * Applies breadth first frontier search on the node given to it, which finds a shortest path without keeping a closed list.
+	 * Only the layer being expanded and the layer being generated are held, and every node records which of its moves lead back
+	 * to states already reached so they are never generated again. The path is rebuilt by searching again between the origin,
+	 * a relay node from the middle layer and the goal, so memory stays proportional to the widest layer.
+	 * Every move of the node must have an inverse.
+	 *
+	 * @param originNode The root node of the search, which must support in place moves with at most 32 moves.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node at the end of a shortest path from the origin node.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small or the node does not support frontier search this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyFrontierBreadthFirstSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		checkFrontierSearch(originNode, depthLimit);
+		return runSearch(originNode, depthLimit, true, options, statistics -> FrontierSearch.breadthFirstSearch(originNode, depthLimit, options, statistics));
+	}
+
+	/**
+	 * Applies breadth first heuristic search on the node given to it.
+	 * This is frontier search that also drops every node whose depth plus heuristic value is above an upper bound on the solution cost,
+	 * so with a good heuristic the layers stay far narrower than those of breadth first search.
+	 * The bound starts at the heuristic value of the origin node and is raised to the lowest value dropped after each pass that finds no goal.
+	 *
+	 * @param originNode The root node of the search, which must support in place moves with at most 32 moves that all have inverses.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small or the node does not support frontier search this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyBreadthFirstHeuristicSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		checkFrontierSearch(originNode, depthLimit);
+		return runSearch(originNode, depthLimit, true, options, statistics -> FrontierSearch.breadthFirstHeuristicSearch(originNode, depthLimit, -1, options, statistics));
+	}
+
+	/**
+	 * Applies breadth first heuristic search on the node given to it with a known upper bound on the solution cost,
+	 * such as the cost of a solution found by {@link #applyWeightedHeuristicSearch(AbstractSearchNode, int, double)}, in a single pass.
+	 *
+	 * @param originNode The root node of the search, which must support in place moves with at most 32 moves that all have inverses.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param upperBound The largest solution cost searched for; nodes whose depth plus heuristic value is above it are dropped.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the upper bound and the depth limit this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit or the bound is too small or the node does not support frontier search this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyBreadthFirstHeuristicSearch(AbstractSearchNode originNode, int depthLimit, int upperBound, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		checkFrontierSearch(originNode, depthLimit);
+		if (upperBound < 1)
+		{
+			throw new IllegalArgumentException(String.format("An upper bound of %d is too low. Expected > 0.", upperBound));
+		}
+		return runSearch(originNode, depthLimit, true, options, statistics -> FrontierSearch.breadthFirstHeuristicSearch(originNode, depthLimit, upperBound, options, statistics));
+	}
+
+	private static void checkFrontierSearch(AbstractSearchNode originNode, int depthLimit) throws IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (!FrontierSearch.supports(originNode))
+		{
+			throw new IllegalArgumentException("Frontier search needs a node that supports in place moves with at most 32 moves: " + originNode.getClass().getName());
+		}
+	}
+
+	/**
+	 * Applies level synchronous parallel breadth first search on the node given to it using the common fork/join pool.
+	 * Nodes will be expanded to a maximum depth of Integer.MAX_VALUE.
+	 *
+	 * @param originNode The root node of the breadth first search.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyParallelBreadthFirstSearch(AbstractSearchNode originNode) throws GoalNodeNotFoundException
+	{
+		return applyParallelBreadthFirstSearch(originNode, Integer.MAX_VALUE, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Applies level synchronous parallel breadth first search on the node given to it.
+	 * Every layer of the search is split into chunks that are expanded in parallel on the pool,
+	 * with the children checked against a concurrent set of the states already reached.
+	 * The shallowest goal node is always returned, and when a layer holds more than one goal node
+	 * the one returned is the one a sequential breadth first search would find first.
+	 * Nodes must override {@link AbstractSearchNode#stateHash()} and be safe to expand from any thread,
+	 * and no node may have more than 256 children.
+	 *
+	 * @param originNode The root node of the breadth first search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be added to the fringe.
+	 * @param pool       The pool that expands the chunks of each layer.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyParallelBreadthFirstSearch(AbstractSearchNode originNode, int depthLimit, ForkJoinPool pool) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyParallelBreadthFirstSearch(originNode, depthLimit, pool, new SearchOptions());
+	}
+
+	/**
+	 * Applies level synchronous parallel breadth first search on the node given to it.
+	 *
+	 * @param originNode The root node of the breadth first search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be added to the fringe.
+	 * @param pool       The pool that expands the chunks of each layer.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyParallelBreadthFirstSearch(AbstractSearchNode originNode, int depthLimit, ForkJoinPool pool, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return runSearch(originNode, depthLimit, true, options, statistics -> ParallelBreadthFirstSearch.search(originNode, depthLimit, pool, options, statistics));
+	}
+
+	/**
+	 * Applies bidirectional breadth first search on the node given to it.
+	 * A breadth first search from the origin and one from the goal state take turns expanding whichever frontier is smaller,
+	 * and the path is joined where they meet, so roughly the square root of the nodes of a breadth first search are generated.
+	 *
+	 * @param originNode The root node of the search.
+	 * @param depthLimit The length of the longest path that will be searched for.
+	 * @param <T>        The type of the node, which has to be able to create its goal state and generate its predecessors.
+	 * @return The goal node at the end of a shortest path from the origin node.
+	 * @throws GoalNodeNotFoundException If no path within the depth limit is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static <T extends AbstractSearchNode & BidirectionalSearchNode> AbstractSearchNode applyBidirectionalSearch(T originNode, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyBidirectionalSearch(originNode, depthLimit, new SearchOptions());
+	}
+
+	/**
+	 * Applies bidirectional breadth first search on the node given to it.
+	 *
+	 * @param originNode The root node of the search.
+	 * @param depthLimit The length of the longest path that will be searched for.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @param <T>        The type of the node, which has to be able to create its goal state and generate its predecessors.
+	 * @return The goal node at the end of a shortest path from the origin node.
+	 * @throws GoalNodeNotFoundException If no path within the depth limit is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static <T extends AbstractSearchNode & BidirectionalSearchNode> AbstractSearchNode applyBidirectionalSearch(T originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return runSearch(originNode, depthLimit, true, options, statistics -> BidirectionalSearch.search(originNode, depthLimit, options, statistics));
+	}
+
+	/**
+	 * Applies A* search on the node given to it.
+	 * Nodes are expanded in order of their depth plus their heuristic value and closed states are reopened if a cheaper path to them is found.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
 	public static AbstractSearchNode applyHeuristicSearch(AbstractSearchNode originNode, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyHeuristicSearch(originNode, depthLimit, new SearchOptions());
+	}
+
+	/**
+	 * Applies A* search on the node given to it.
+	 * The open list, chosen with {@link SearchOptions#setOpenListFactory(java.util.function.Supplier)}, supports decreasing the key of a state already in it,
+	 * the heuristic of each state is evaluated once, and every state reached keeps its lowest known path cost.
+	 * Ties between equal f values are broken towards the deeper node.
+	 * If the options set a state table memory limit and the origin node has a packed state, the path costs are kept in an off heap table.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyHeuristicSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
 	{
 		if (depthLimit < 1)
 		{
 			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
 		}
-		originNode.setNodeDepth(0);
-		if (originNode.inGoalState())
+		if (useStateTable(originNode, options))
 		{
-			return originNode;
+			return runSearch(originNode, depthLimit, true, options, statistics ->
+			{
+				try (OffHeapStateTable stateTable = new OffHeapStateTable(options.getStateTableMemoryLimit()))
+				{
+					return heuristicSearchWithStateTable(originNode, depthLimit, stateTable, options, statistics);
+				}
+			});
 		}
-		TreeMap<Integer, ArrayList<AbstractSearchNode>> fringe = new TreeMap<>();
-		AtomicReference<AbstractSearchNode> currentNode = new AtomicReference<>();
-		ArrayList<AbstractSearchNode> expandedNodes = new ArrayList<>();
-		fringe.compute(originNode.getHeuristicValue(), (key, value) -> new ArrayList<>(List.of(originNode)));
+		// without reopening a closed state may keep a path that is not the cheapest, so only paths found with reopening are known to be optimal
+		return runSearch(originNode, depthLimit, options.isReopenClosedNodes(), options, statistics -> heuristicSearch(originNode, depthLimit, options, statistics));
+	}
+
+	private static AbstractSearchNode heuristicSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		SearchListener listener = options.getListener();
+		OpenList fringe = options.getOpenListFactory().get();
+		NodeHashMap<OpenListEntry> entries = new NodeHashMap<>();
+		int originHeuristic = originNode.getHeuristicValue();
+		OpenListEntry originEntry = new OpenListEntry(originNode, 0, originHeuristic, originHeuristic);
+		fringe.push(originEntry);
+		entries.put(originNode, originEntry);
+		boolean compactPaths = useCompactPaths(originNode, options);
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = childCollector(newNodes, compactPaths);
+		SolutionCache cache = options.getSolutionCache();
 		while (!fringe.isEmpty())
 		{
-			fringe.computeIfPresent(fringe.firstKey(), (key, list) ->
+			OpenListEntry currentEntry = fringe.poll();
+			AbstractSearchNode currentNode = currentEntry.node;
+			options.checkCancelled();
+			if (currentNode.inGoalState())
+			{
+				return compactPaths ? SearchSolution.rebuildPath(originNode, currentNode, state -> entries.get(state).node.getLastMove()) : currentNode;
+			}
+			if (currentEntry.exactHValue && currentEntry.fValue <= depthLimit)
 			{
-				currentNode.set(list.remove(0));
-				if (list.isEmpty())
+				AbstractSearchNode pathNode = compactPaths ? SearchSolution.rebuildPath(originNode, currentNode, state -> entries.get(state).node.getLastMove()) : currentNode;
+				AbstractSearchNode goalNode = cache.followPath(pathNode);
+				if (goalNode != null)
 				{
-					return null;
+					return goalNode;
 				}
-				return list;
-			});
-			ArrayList<AbstractSearchNode> newNodes = currentNode.get().generateChildNodes();
+			}
+			if (currentNode.getNodeDepth() >= depthLimit)
+			{
+				continue;
+			}
+			newNodes.clear();
+			currentNode.forEachChildNode(collectChild);
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
+			{
+				listener.nodeExpanded(currentNode, statistics);
+			}
 			for (AbstractSearchNode node : newNodes)
 			{
-				if (node.inGoalState())
+				int gValue = node.getNodeDepth();
+				OpenListEntry entry = entries.get(node);
+				if (entry == null)
+				{
+					entry = createEntry(node, gValue, cache);
+					entries.put(node, entry);
+					fringe.push(entry);
+				} else if (gValue < entry.gValue && (entry.isOpen() || options.isReopenClosedNodes()))
 				{
-					return node;
+					// the state's heuristic does not depend on the path so the stored value is reused
+					fringe.decreaseKey(entry, node, gValue, gValue + entry.hValue);
+				} else
+				{
+					statistics.duplicatesPruned++;
 				}
-				boolean addToFringe = true;
-				if (!(currentNode.get().getNodeDepth() < depthLimit - 1) || node.equalsNode(currentNode.get()))
+			}
+			statistics.updateFringeSize(fringe.size());
+			statistics.updateClosedSetSize(entries.size());
+		}
+		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+	}
+
+	/**
+	 * A* search that keeps the lowest known path cost of every state in an off heap table instead of a map of entries.
+	 * Since an entry in the open list can not be found from the table, a cheaper path to a state pushes a new entry,
+	 * and entries that are no longer the cheapest path to their state are skipped when they are polled.
+	 * A state reached by a cheaper path is always expanded again.
+	 */
+	private static AbstractSearchNode heuristicSearchWithStateTable(AbstractSearchNode originNode, int depthLimit, OffHeapStateTable stateTable, SearchOptions options,
+			SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		SearchListener listener = options.getListener();
+		OpenList fringe = options.getOpenListFactory().get();
+		int originHeuristic = originNode.getHeuristicValue();
+		fringe.push(new OpenListEntry(originNode, 0, originHeuristic, originHeuristic));
+		stateTable.put(originNode.getPackedState(), 0, -1);
+		boolean compactPaths = useCompactPaths(originNode, options);
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = childCollector(newNodes, compactPaths);
+		SolutionCache cache = options.getSolutionCache();
+		while (!fringe.isEmpty())
+		{
+			OpenListEntry currentEntry = fringe.poll();
+			AbstractSearchNode currentNode = currentEntry.node;
+			options.checkCancelled();
+			if (OffHeapStateTable.depthOf(stateTable.get(currentNode.getPackedState())) < currentNode.getNodeDepth())
+			{
+				continue;
+			}
+			if (currentNode.inGoalState())
+			{
+				return compactPaths
+						? SearchSolution.rebuildPath(originNode, currentNode, state -> OffHeapStateTable.parentMoveOf(stateTable.get(state.getPackedState())))
+						: currentNode;
+			}
+			if (currentEntry.exactHValue && currentEntry.fValue <= depthLimit)
+			{
+				AbstractSearchNode pathNode = compactPaths
+						? SearchSolution.rebuildPath(originNode, currentNode, state -> OffHeapStateTable.parentMoveOf(stateTable.get(state.getPackedState())))
+						: currentNode;
+				AbstractSearchNode goalNode = cache.followPath(pathNode);
+				if (goalNode != null)
 				{
-					addToFringe = false;
+					return goalNode;
 				}
-				if (addToFringe)
+			}
+			if (currentNode.getNodeDepth() >= depthLimit)
+			{
+				continue;
+			}
+			newNodes.clear();
+			currentNode.forEachChildNode(collectChild);
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
+			{
+				listener.nodeExpanded(currentNode, statistics);
+			}
+			for (AbstractSearchNode node : newNodes)
+			{
+				int gValue = node.getNodeDepth();
+				long state = node.getPackedState();
+				int payload = stateTable.get(state);
+				if (payload == OffHeapStateTable.ABSENT || gValue < OffHeapStateTable.depthOf(payload))
 				{
-					fringe.computeIfPresent(node.calculateHeuristic() + node.getNodeDepth(), (key, value) ->
-					{
-						//value.add(0, node); // FIXME: 22/09/2020 this might be a better way to implement this (it makes the search more depth first than breadth first)
-						value.add(node);
-						return value;
-					});
-					fringe.computeIfAbsent(node.calculateHeuristic() + node.getNodeDepth(), key -> new ArrayList<>(List.of(node)));
+					stateTable.put(state, gValue, node.getLastMove());
+					fringe.push(createEntry(node, gValue, cache));
+				} else
+				{
+					statistics.duplicatesPruned++;
 				}
 			}
+			statistics.updateFringeSize(fringe.size());
+			statistics.updateClosedSetSize(stateTable.size());
 		}
 		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
 	}
-}
 
+	/**
+	 * Creates the open list entry of a newly reached state. If the state has a cached distance, that distance is used as its h value,
+	 * since it is exact and so at least as large as any admissible heuristic.
+	 */
+	private static OpenListEntry createEntry(AbstractSearchNode node, int gValue, SolutionCache cache)
+	{
+		int hValue = node.getHeuristicValue();
+		int payload = cache != null ? cache.get(node) : SolutionCache.ABSENT;
+		if (payload != SolutionCache.ABSENT)
+		{
+			hValue = Math.max(hValue, SolutionCache.distanceOf(payload));
+		}
+		OpenListEntry entry = new OpenListEntry(node, gValue, hValue, gValue + hValue);
+		entry.exactHValue = payload != SolutionCache.ABSENT;
+		return entry;
+	}
+
+	/**
+	 * Applies weighted A* search on the node given to it.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param weight     The factor the heuristic value is multiplied by, at least 1.
+	 * @return A goal node whose path cost is at most the weight times the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit or the weight is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyWeightedHeuristicSearch(AbstractSearchNode originNode, int depthLimit, double weight) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyWeightedHeuristicSearch(originNode, depthLimit, weight, new SearchOptions());
+	}
+
+	/**
+	 * Applies weighted A* search on the node given to it.
+	 * Nodes are expanded in order of their depth plus the weighted heuristic value, which inflates the heuristic
+	 * so the search heads for the goal more directly and expands far fewer nodes than A*, at the cost of a longer path.
+	 * Closed states are not reopened. The bound the path cost is proven to be within of the lowest cost,
+	 * which may be tighter than the weight, is stored in the statistics.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param weight     The factor the heuristic value is multiplied by, at least 1.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return A goal node whose path cost is at most the weight times the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit or the weight is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyWeightedHeuristicSearch(AbstractSearchNode originNode, int depthLimit, double weight, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (!(weight >= 1))
+		{
+			throw new IllegalArgumentException(String.format("A weight of %.3f is too low. Expected >= 1.", weight));
+		}
+		return runSearch(originNode, depthLimit, false, options, statistics -> AnytimeHeuristicSearch.search(originNode, depthLimit, weight, 0, options, statistics));
+	}
+
+	/**
+	 * Applies anytime repairing A* search on the node given to it.
+	 * A weighted A* search finds a first solution quickly, then the weight is lowered step by step and the search
+	 * continues from where it left off, improving the solution and its bound until the solution is proven optimal
+	 * or the deadline set with {@link SearchOptions#setTimeout(java.time.Duration)} passes.
+	 * Once the search is stopped, by its deadline or by being cancelled, the best solution found so far is returned,
+	 * and the bound it is proven to be within of the lowest cost is stored in the statistics.
+	 * Each improved solution is also reported to {@link SearchListener#solutionImproved}.
+	 *
+	 * @param originNode    The root node of the heuristic search.
+	 * @param depthLimit    The depth of the deepest node that will be checked if it is in the goal state.
+	 *                      Any nodes at this depth will not be expanded.
+	 * @param initialWeight The factor the heuristic value is multiplied by in the first pass, at least 1.
+	 * @param weightStep    The amount the weight is lowered by after each pass.
+	 * @param options       The settings of the search, which also hold its statistics once it finishes.
+	 * @return The best goal node found before the search finished or was stopped.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit, or the search is stopped before one is found.
+	 * @throws IllegalArgumentException  If the depth limit, the weight or the step is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyAnytimeHeuristicSearch(AbstractSearchNode originNode, int depthLimit, double initialWeight, double weightStep, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (!(initialWeight >= 1))
+		{
+			throw new IllegalArgumentException(String.format("A weight of %.3f is too low. Expected >= 1.", initialWeight));
+		}
+		if (!(weightStep > 0))
+		{
+			throw new IllegalArgumentException(String.format("A weight step of %.3f is too low. Expected > 0.", weightStep));
+		}
+		return runSearch(originNode, depthLimit, false, options, statistics -> AnytimeHeuristicSearch.search(originNode, depthLimit, initialWeight, weightStep, options, statistics));
+	}
+
+	/**
+	 * Applies beam search on the node given to it.
+	 * The nodes of each depth are cut down to the ones with the lowest heuristic values before they are expanded,
+	 * so the nodes held are bounded by the beam width; nodes with in place moves keep a compact log of moves instead of their parents.
+	 * A solution may be missed and the one found may not be the shortest.
+	 *
+	 * @param originNode The root node of the beam search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param beamWidth  The largest number of nodes expanded at each depth.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit or every node is pruned this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit or the beam width is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyBeamSearch(AbstractSearchNode originNode, int depthLimit, int beamWidth) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyBeamSearch(originNode, depthLimit, beamWidth, new SearchOptions());
+	}
+
+	/**
+	 * Applies beam search on the node given to it.
+	 *
+	 * @param originNode The root node of the beam search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param beamWidth  The largest number of nodes expanded at each depth.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit or every node is pruned this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit or the beam width is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyBeamSearch(AbstractSearchNode originNode, int depthLimit, int beamWidth, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (beamWidth < 1)
+		{
+			throw new IllegalArgumentException(String.format("A beam width of %d is too low. Expected > 0.", beamWidth));
+		}
+		return runSearch(originNode, depthLimit, false, options, statistics -> BeamSearch.search(originNode, depthLimit, beamWidth, options, statistics));
+	}
+
+	/**
+	 * Applies greedy best first search on the node given to it.
+	 * Nodes are expanded in order of their heuristic value alone, with ties broken towards the deeper node, and every state is only reached once.
+	 * Goal nodes are returned as soon as they are generated. The solution found is not the shortest, but it is usually found
+	 * after far fewer expansions than with A* search.
+	 *
+	 * @param originNode The root node of the greedy search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The first node found that matches the goal state.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyGreedyBestFirstSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return runSearch(originNode, depthLimit, false, options, statistics -> greedyBestFirstSearch(originNode, depthLimit, options, statistics));
+	}
+
+	private static AbstractSearchNode greedyBestFirstSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		SearchListener listener = options.getListener();
+		OpenList fringe = options.getOpenListFactory().get();
+		NodeHashMap<AbstractSearchNode> reachedNodes = new NodeHashMap<>();
+		int originHeuristic = originNode.getHeuristicValue();
+		fringe.push(new OpenListEntry(originNode, 0, originHeuristic, originHeuristic));
+		reachedNodes.put(originNode, originNode);
+		boolean compactPaths = useCompactPaths(originNode, options);
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = childCollector(newNodes, compactPaths);
+		while (!fringe.isEmpty())
+		{
+			AbstractSearchNode currentNode = fringe.poll().node;
+			options.checkCancelled();
+			if (currentNode.getNodeDepth() >= depthLimit)
+			{
+				continue;
+			}
+			newNodes.clear();
+			currentNode.forEachChildNode(collectChild);
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
+			{
+				listener.nodeExpanded(currentNode, statistics);
+			}
+			for (AbstractSearchNode node : newNodes)
+			{
+				if (node.inGoalState())
+				{
+					return compactPaths ? SearchSolution.rebuildPath(originNode, node, state -> reachedNodes.get(state).getLastMove()) : node;
+				}
+				if (!reachedNodes.putIfAbsent(node, node))
+				{
+					statistics.duplicatesPruned++;
+					continue;
+				}
+				int hValue = node.getHeuristicValue();
+				fringe.push(new OpenListEntry(node, node.getNodeDepth(), hValue, hValue));
+			}
+			statistics.updateFringeSize(fringe.size());
+			statistics.updateClosedSetSize(reachedNodes.size());
+		}
+		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+	}
+
+	/**
+	 * Applies iterative deepening A* search on the node given to it.
+	 * Nodes will be expanded to a maximum depth of Integer.MAX_VALUE.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyIterativeDeepeningHeuristicSearch(AbstractSearchNode originNode) throws GoalNodeNotFoundException
+	{
+		return applyIterativeDeepeningHeuristicSearch(originNode, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Applies iterative deepening A* search on the node given to it.
+	 * Depth first searches are repeated with an increasing bound on depth plus heuristic value,
+	 * so the memory used is proportional to the depth of the solution rather than to the number of nodes expanded.
+	 * If the node supports in place moves the search applies and undoes moves on a single copy of the origin node
+	 * and never returns to the state it has just left.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyIterativeDeepeningHeuristicSearch(AbstractSearchNode originNode, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyIterativeDeepeningHeuristicSearch(originNode, depthLimit, new SearchOptions());
+	}
+
+	/**
+	 * Applies iterative deepening A* search on the node given to it.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyIterativeDeepeningHeuristicSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return runSearch(originNode, depthLimit, true, options, statistics -> IterativeDeepeningSearch.search(originNode, depthLimit, options, statistics));
+	}
+
+	/**
+	 * Applies hash distributed A* search on the node given to it, using one worker thread per available processor.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyParallelHeuristicSearch(AbstractSearchNode originNode, int depthLimit) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		return applyParallelHeuristicSearch(originNode, depthLimit, Runtime.getRuntime().availableProcessors(), new SearchOptions());
+	}
+
+	/**
+	 * Applies hash distributed A* search on the node given to it.
+	 * Each state is owned by the worker thread chosen by its {@link AbstractSearchNode#stateHash()}, which keeps it in its own open list and closed set.
+	 * Nodes are passed between workers in batches and the search only ends once no open node could lead to a cheaper goal,
+	 * so the goal returned has the lowest path cost when the heuristic is admissible. Since workers do not expand nodes in a global f order,
+	 * closed states are always reopened when a cheaper path to them is found, whatever {@link SearchOptions#isReopenClosedNodes()} is set to.
+	 * Nodes must override {@link AbstractSearchNode#stateHash()} for the work to be spread between threads,
+	 * and their methods must be safe to call from any thread.
+	 *
+	 * @param originNode  The root node of the heuristic search.
+	 * @param depthLimit  The depth of the deepest node that will be checked if it is in the goal state.
+	 *                    Any nodes at this depth will not be expanded.
+	 * @param threadCount The number of worker threads.
+	 * @param options     The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found this exception will be thrown.
+	 * @throws IllegalArgumentException  If the depth limit or the thread count is too small this exception will be thrown.
+	 */
+	public static AbstractSearchNode applyParallelHeuristicSearch(AbstractSearchNode originNode, int depthLimit, int threadCount, SearchOptions options) throws GoalNodeNotFoundException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (threadCount < 1)
+		{
+			throw new IllegalArgumentException(String.format("A thread count of %d is too low. Expected > 0.", threadCount));
+		}
+		return runSearch(originNode, depthLimit, true, options, statistics -> ParallelHeuristicSearch.search(originNode, depthLimit, threadCount, options, statistics));
+	}
+
+	/**
+	 * Creates a depth first search that runs lazily, returning goal nodes one at a time as they are asked for.
+	 * Goal nodes are not the end of a path, so goal nodes reached through them are returned too.
+	 *
+	 * @param originNode         The root node of the depth first search.
+	 * @param pruneExpandedNodes If this flag is set then a node is skipped if a node with an equal state
+	 *                           has already been reached at the same or a shallower depth, so each goal state is returned at most once per depth.
+	 *                           Otherwise every path to a goal state within the depth limit is returned.
+	 * @param depthLimit         The depth of the deepest node that will be checked if it is in the goal state.
+	 *                           Any nodes at this depth will not be expanded.
+	 * @param options            The settings of the search, which also hold its statistics.
+	 * @return The iterator of the goal nodes, which should be closed once it is no longer needed.
+	 * @throws IllegalArgumentException If the depth limit is too small this exception will be thrown.
+	 */
+	public static SearchIterator iterateDepthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options) throws IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return SearchIterator.depthFirst(originNode, pruneExpandedNodes, depthLimit, options);
+	}
+
+	/**
+	 * Creates a breadth first search that runs lazily, returning goal nodes one at a time in order of their depth as they are asked for.
+	 *
+	 * @param originNode         The root node of the breadth first search.
+	 * @param pruneExpandedNodes If this flag is set then then any nodes that satisfy the node equality function on
+	 *                           nodes that have already been reached are skipped, so each goal state is returned once.
+	 *                           Otherwise every path to a goal state within the depth limit is returned.
+	 * @param depthLimit         The depth of the deepest node that will be checked if it is in the goal state.
+	 *                           Any nodes at this depth will not be expanded.
+	 * @param options            The settings of the search, which also hold its statistics.
+	 * @return The iterator of the goal nodes, which should be closed once it is no longer needed.
+	 * @throws IllegalArgumentException If the depth limit is too small this exception will be thrown.
+	 */
+	public static SearchIterator iterateBreadthFirstSearch(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options) throws IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return SearchIterator.breadthFirst(originNode, pruneExpandedNodes, depthLimit, options);
+	}
+
+	/**
+	 * Creates an A* search that runs lazily, returning goal nodes one at a time as they are asked for.
+	 * With a consistent heuristic the goal nodes are returned in order of their path cost, each goal state once.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param options    The settings of the search, which also hold its statistics.
+	 * @return The iterator of the goal nodes, which should be closed once it is no longer needed.
+	 * @throws IllegalArgumentException If the depth limit is too small this exception will be thrown.
+	 */
+	public static SearchIterator iterateHeuristicSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		return SearchIterator.bestFirst(originNode, depthLimit, options);
+	}
+
+	/**
+	 * Starts a new set of statistics, checks the origin node and runs the search, stopping the statistics when it finishes
+	 * and attaching them to the exception if it fails. An origin node that can not reach a goal state fails without searching.
+	 * Searches that find a shortest path with the given options first look for the origin state in the solution cache and record the path they find in it,
+	 * since the cache treats every path recorded as optimal.
+	 */
+	private static AbstractSearchNode runSearch(AbstractSearchNode originNode, int depthLimit, boolean optimal, SearchOptions options, StatisticsSearch search) throws GoalNodeNotFoundException
+	{
+		SearchStatistics statistics = options.startStatistics();
+		SolutionCache cache = optimal ? options.getSolutionCache() : null;
+		try
+		{
+			originNode.setNodeDepth(0);
+			if (originNode.inGoalState())
+			{
+				return originNode;
+			}
+			if (!originNode.isSolvable())
+			{
+				throw new GoalNodeNotFoundException("No goal state can be reached from the origin node.");
+			}
+			int payload = cache != null ? cache.get(originNode) : SolutionCache.ABSENT;
+			if (payload != SolutionCache.ABSENT && SolutionCache.distanceOf(payload) > depthLimit)
+			{
+				throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+			}
+			AbstractSearchNode goalNode = payload != SolutionCache.ABSENT ? cache.followPath(originNode) : null;
+			if (goalNode == null)
+			{
+				goalNode = search.search(statistics);
+				if (cache != null)
+				{
+					cache.record(goalNode);
+				}
+			}
+			return goalNode;
+		} catch (GoalNodeNotFoundException e)
+		{
+			e.setStatistics(statistics);
+			throw e;
+		} finally
+		{
+			statistics.stop();
+		}
+	}
+
+	@FunctionalInterface
+	private interface StatisticsSearch
+	{
+		AbstractSearchNode search(SearchStatistics statistics) throws GoalNodeNotFoundException;
+	}
+}
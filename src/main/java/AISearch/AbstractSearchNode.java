@@ -1,11 +1,13 @@
 package AISearch;
 
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 public abstract class AbstractSearchNode
 {
-	private final AbstractSearchNode parentNode;
-	private final Integer heuristicValue;
+	private AbstractSearchNode parentNode;
+	private int heuristicValue;
+	private boolean heuristicCalculated;
 	private int nodeDepth;
 
 
@@ -15,7 +17,6 @@ public abstract class AbstractSearchNode
 	public AbstractSearchNode()
 	{
 		this.parentNode = null;
-		this.heuristicValue = this.calculateHeuristic();
 		nodeDepth = 0;
 	}
 
@@ -27,7 +28,6 @@ public abstract class AbstractSearchNode
 	public AbstractSearchNode(AbstractSearchNode parentNode)
 	{
 		this.parentNode = parentNode;
-		this.heuristicValue = this.calculateHeuristic();
 		this.nodeDepth = this.parentNode.getNodeDepth() + 1;
 	}
 
@@ -41,11 +41,32 @@ public abstract class AbstractSearchNode
 	 */
 	public abstract Integer calculateHeuristic();
 
+	/**
+	 * Returns the heuristic value of this node.
+	 * The heuristic is calculated the first time this is called and the value is cached,
+	 * so it is only evaluated once per node and never before a subclass has finished constructing its state.
+	 *
+	 * @return The heuristics value.
+	 */
 	public Integer getHeuristicValue()
 	{
+		if (!heuristicCalculated)
+		{
+			heuristicValue = calculateHeuristic();
+			heuristicCalculated = true;
+		}
 		return heuristicValue;
 	}
 
+	/**
+	 * Discards the cached heuristic value so it is recalculated on the next call to {@link #getHeuristicValue()}.
+	 * Subclasses must call this whenever the state of the node is changed after construction.
+	 */
+	protected void invalidateHeuristicValue()
+	{
+		heuristicCalculated = false;
+	}
+
 	public int getNodeDepth()
 	{
 		return nodeDepth;
@@ -58,6 +79,18 @@ public abstract class AbstractSearchNode
 
 	public abstract boolean inGoalState();
 
+	/**
+	 * Returns whether a goal state may be reachable from this node. Every search checks this before it starts
+	 * and fails straight away if it returns false, instead of exploring every reachable state to prove there is no solution.
+	 * The default implementation returns true; subclasses should override it with a cheap test that never rejects a solvable node.
+	 *
+	 * @return False only if no goal state can be reached from this node.
+	 */
+	public boolean isSolvable()
+	{
+		return true;
+	}
+
 	/**
 	 * This method is used to set the children of the current node.
 	 *
@@ -65,10 +98,165 @@ public abstract class AbstractSearchNode
 	 */
 	public abstract ArrayList<AbstractSearchNode> generateChildNodes();
 
+	/**
+	 * Passes every child node of the current node to a consumer, without collecting them in a list first.
+	 * Child nodes with the same state as this node or as its parent are skipped, since no search needs them.
+	 * The default implementation filters the nodes from {@link #generateChildNodes()};
+	 * subclasses should override it to avoid creating the skipped nodes at all.
+	 *
+	 * @param consumer Receives each child node.
+	 */
+	public void forEachChildNode(Consumer<? super AbstractSearchNode> consumer)
+	{
+		for (AbstractSearchNode node : generateChildNodes())
+		{
+			if (!node.equalsNode(this) && (parentNode == null || !node.equalsNode(parentNode)))
+			{
+				consumer.accept(node);
+			}
+		}
+	}
+
 	public abstract boolean equalsNode(AbstractSearchNode node);
 
+	/**
+	 * Calculates a hash of the state held by this node, used to find nodes with equal states in hashed closed sets.
+	 * Any two nodes that satisfy {@link #equalsNode(AbstractSearchNode)} must return the same value.
+	 * The default implementation returns the same value for every node, which is correct but makes every
+	 * closed set lookup a linear scan; subclasses should override it without allocating.
+	 *
+	 * @return The hash of the state held by this node.
+	 */
+	public int stateHash()
+	{
+		return 0;
+	}
+
 	public AbstractSearchNode getParentNode()
 	{
 		return parentNode;
 	}
+
+	/**
+	 * Drops the reference to the parent node, so the node no longer keeps the path that led to it reachable.
+	 * The depth and last move of the node are kept. Searches that rebuild their paths from the closed set use this.
+	 */
+	void detachParentNode()
+	{
+		parentNode = null;
+	}
+
+	/**
+	 * @return The move that created this node from its parent node, or -1 if it is a root node or its moves are not numbered.
+	 */
+	public int getLastMove()
+	{
+		return -1;
+	}
+
+	/**
+	 * Returns whether the state of this node can be encoded in a single long by {@link #getPackedState()}.
+	 * Searches can then keep their closed sets in an {@link OffHeapStateTable} instead of holding on to the nodes.
+	 *
+	 * @return True if packed states are supported.
+	 */
+	public boolean hasPackedState()
+	{
+		return false;
+	}
+
+	/**
+	 * Encodes the state of this node in a long. Two nodes must have the same packed state exactly when they satisfy
+	 * {@link #equalsNode(AbstractSearchNode)}.
+	 *
+	 * @return The packed state.
+	 */
+	public long getPackedState()
+	{
+		throw new UnsupportedOperationException("Packed states are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Decodes a packed state from {@link #getPackedState()} into a new root node of the same kind as this node.
+	 * Searches that keep their states outside of memory use this to turn them back into nodes they can expand.
+	 *
+	 * @param packedState The packed state.
+	 * @return The root node holding the state.
+	 */
+	public AbstractSearchNode createNodeFromPackedState(long packedState)
+	{
+		throw new UnsupportedOperationException("Packed states are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Returns whether this node supports applying and undoing moves on its own state.
+	 * Nodes that do can be searched by strategies that keep a single mutable state instead of allocating a new node per child.
+	 * If this returns true then {@link #getMoveCount()}, {@link #applyMove(int)}, {@link #undoMove(int)},
+	 * {@link #getInverseMove(int)}, {@link #copyNode()} and {@link #createChildNode(int)} must all be implemented.
+	 *
+	 * @return True if in place moves are supported.
+	 */
+	public boolean supportsInPlaceMoves()
+	{
+		return false;
+	}
+
+	/**
+	 * @return The number of moves that can be attempted from any state. Moves are numbered from 0 to this value minus one.
+	 */
+	public int getMoveCount()
+	{
+		throw new UnsupportedOperationException("In place moves are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Applies a move to the state of this node without creating a new node.
+	 *
+	 * @param move The move to apply.
+	 * @return True if the move was applied, false if it is not legal in the current state, in which case the state is unchanged.
+	 */
+	public boolean applyMove(int move)
+	{
+		throw new UnsupportedOperationException("In place moves are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Reverts a move that was previously applied with {@link #applyMove(int)}.
+	 *
+	 * @param move The move to revert.
+	 */
+	public void undoMove(int move)
+	{
+		throw new UnsupportedOperationException("In place moves are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * @param move A move.
+	 * @return The move that reverts the given move, or -1 if there is none.
+	 */
+	public int getInverseMove(int move)
+	{
+		throw new UnsupportedOperationException("In place moves are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Creates a root node with a copy of the state of this node, so in place moves can be made without changing this node.
+	 *
+	 * @return The copy.
+	 */
+	public AbstractSearchNode copyNode()
+	{
+		throw new UnsupportedOperationException("In place moves are not supported by " + getClass().getName());
+	}
+
+	/**
+	 * Creates the child node reached by applying a move to the state of this node.
+	 *
+	 * @param move The move to apply.
+	 * @return The child node or null if the move is not legal in the current state.
+	 */
+	public AbstractSearchNode createChildNode(int move)
+	{
+		throw new UnsupportedOperationException("In place moves are not supported by " + getClass().getName());
+	}
 }
@@ -0,0 +1,248 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Anytime repairing A* search.
+ * A best first search ordered by g + w * h quickly finds a solution whose cost is at most w times the optimal cost.
+ * The weight is then lowered and the search carries on from its open list instead of starting over:
+ * states whose path cost improves after they were expanded in a pass are set aside as inconsistent and only put back
+ * on the open list for the next pass, so every pass only repairs what the previous one left behind.
+ * After each pass the bound is tightened to the cost of the best solution over the lowest g + h of any open or inconsistent state.
+ * <p>
+ * Weighted A* is a single pass with a fixed weight. Weights are held in fixed point so the open list keeps integer keys.
+ */
+class AnytimeHeuristicSearch
+{
+	private static final int WEIGHT_SCALE = 1 << 10;
+
+	private final int depthLimit;
+	private final SearchOptions options;
+	private final SearchStatistics statistics;
+	private final SearchListener listener;
+	private final BinaryHeapOpenList fringe = new BinaryHeapOpenList();
+	private final NodeHashMap<AnytimeEntry> entries = new NodeHashMap<>();
+	private final ArrayList<AnytimeEntry> inconsistent = new ArrayList<>();
+	private final ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+	private final Consumer<AbstractSearchNode> collectChild = newNodes::add;
+	private int scaledWeight;
+	private int pass;
+	private AbstractSearchNode incumbent;
+	private int incumbentCost = Integer.MAX_VALUE;
+
+	private AnytimeHeuristicSearch(int depthLimit, SearchOptions options, SearchStatistics statistics)
+	{
+		this.depthLimit = depthLimit;
+		this.options = options;
+		this.statistics = statistics;
+		this.listener = options.getListener();
+	}
+
+	/**
+	 * Runs passes with a falling weight until the solution is proven optimal, or until the search is stopped
+	 * once a solution has been found. The bound of the solution returned is stored in the statistics.
+	 *
+	 * @param originNode    The root node of the search, which must not be in the goal state.
+	 * @param depthLimit    The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param initialWeight The weight of the heuristic in the first pass.
+	 * @param weightStep    The amount the weight is lowered by after each pass, or 0 to stop after the first pass that finds a solution.
+	 * @param options       The settings of the search. Cancelling it or passing its deadline ends the search with the best solution so far.
+	 * @param statistics    The statistics filled in by the search.
+	 * @return The best goal node found.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit, or the search is stopped before one is found.
+	 */
+	static AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, double initialWeight, double weightStep, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		AnytimeHeuristicSearch search = new AnytimeHeuristicSearch(depthLimit, options, statistics);
+		double weight = initialWeight;
+		search.scaledWeight = scaleWeight(weight);
+		AnytimeEntry originEntry = new AnytimeEntry(originNode, 0, originNode.getHeuristicValue());
+		originEntry.fValue = search.key(0, originEntry.hValue);
+		search.entries.put(originNode, originEntry);
+		search.fringe.push(originEntry);
+		while (true)
+		{
+			boolean finished = search.improvePath();
+			ArrayList<AnytimeEntry> open = search.drainOpenStates();
+			if (search.incumbent == null && (!finished || open.isEmpty()))
+			{
+				options.checkCancelled();
+				throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+			}
+			if (search.incumbent != null)
+			{
+				double bound = search.proveBound(open, finished ? weight : Double.POSITIVE_INFINITY);
+				statistics.suboptimalityBound = bound;
+				if (search.listener != null)
+				{
+					search.listener.solutionImproved(search.incumbent, bound, statistics);
+				}
+				if (!finished || bound <= 1 || weightStep <= 0)
+				{
+					return search.incumbent;
+				}
+				weight = Math.max(1, weight - weightStep);
+			}
+			search.startPass(weight, open);
+		}
+	}
+
+	private static int scaleWeight(double weight)
+	{
+		return (int) Math.round(weight * WEIGHT_SCALE);
+	}
+
+	private int key(int gValue, int hValue)
+	{
+		return gValue * WEIGHT_SCALE + scaledWeight * hValue;
+	}
+
+	/**
+	 * Expands states in order of their weighted f value until none could lead to a solution cheaper than the incumbent.
+	 *
+	 * @return False if the search was stopped before the pass finished.
+	 */
+	private boolean improvePath() throws SearchCancelledException
+	{
+		while (!fringe.isEmpty() && fringe.peek().fValue < (long) incumbentCost * WEIGHT_SCALE)
+		{
+			if (options.isStopRequested() || Thread.currentThread().isInterrupted())
+			{
+				if (incumbent != null)
+				{
+					return false;
+				}
+				options.checkCancelled();
+			}
+			AnytimeEntry currentEntry = (AnytimeEntry) fringe.poll();
+			currentEntry.closedPass = pass;
+			if (currentEntry.gValue >= depthLimit)
+			{
+				continue;
+			}
+			expand(currentEntry.node);
+		}
+		return true;
+	}
+
+	private void expand(AbstractSearchNode currentNode)
+	{
+		newNodes.clear();
+		currentNode.forEachChildNode(collectChild);
+		statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+		if (listener != null)
+		{
+			listener.nodeExpanded(currentNode, statistics);
+		}
+		for (AbstractSearchNode node : newNodes)
+		{
+			int gValue = node.getNodeDepth();
+			if (node.inGoalState())
+			{
+				if (gValue < incumbentCost)
+				{
+					incumbent = node;
+					incumbentCost = gValue;
+				}
+				continue;
+			}
+			AnytimeEntry entry = entries.get(node);
+			if (entry == null)
+			{
+				int hValue = node.getHeuristicValue();
+				if (gValue + hValue >= incumbentCost)
+				{
+					continue;
+				}
+				entry = new AnytimeEntry(node, gValue, hValue);
+				entry.fValue = key(gValue, hValue);
+				entries.put(node, entry);
+				fringe.push(entry);
+			} else if (gValue < entry.gValue && gValue + entry.hValue < incumbentCost)
+			{
+				if (entry.closedPass == pass)
+				{
+					// expanded in this pass, so it waits for the next one
+					entry.node = node;
+					entry.gValue = gValue;
+					if (!entry.inconsistent)
+					{
+						entry.inconsistent = true;
+						inconsistent.add(entry);
+					}
+				} else
+				{
+					fringe.decreaseKey(entry, node, gValue, key(gValue, entry.hValue));
+				}
+			} else
+			{
+				statistics.duplicatesPruned++;
+			}
+		}
+		statistics.updateFringeSize(fringe.size() + inconsistent.size());
+		statistics.updateClosedSetSize(entries.size());
+	}
+
+	/**
+	 * Takes every open and inconsistent state out of the open list, leaving out those that can not lead to a cheaper solution.
+	 */
+	private ArrayList<AnytimeEntry> drainOpenStates()
+	{
+		ArrayList<AnytimeEntry> open = new ArrayList<>(fringe.size() + inconsistent.size());
+		while (!fringe.isEmpty())
+		{
+			AnytimeEntry entry = (AnytimeEntry) fringe.poll();
+			if (entry.gValue + entry.hValue < incumbentCost)
+			{
+				open.add(entry);
+			}
+		}
+		for (AnytimeEntry entry : inconsistent)
+		{
+			entry.inconsistent = false;
+			if (entry.gValue + entry.hValue < incumbentCost)
+			{
+				open.add(entry);
+			}
+		}
+		inconsistent.clear();
+		return open;
+	}
+
+	/**
+	 * Every path to a cheaper solution than the incumbent passes through an open or inconsistent state,
+	 * so the lowest g + h of those states is a lower bound on the optimal cost.
+	 */
+	private double proveBound(ArrayList<AnytimeEntry> open, double weight)
+	{
+		int lowerBound = incumbentCost;
+		for (AnytimeEntry entry : open)
+		{
+			lowerBound = Math.min(lowerBound, entry.gValue + entry.hValue);
+		}
+		return Math.min(weight, lowerBound == 0 ? 1 : (double) incumbentCost / lowerBound);
+	}
+
+	private void startPass(double weight, ArrayList<AnytimeEntry> open)
+	{
+		pass++;
+		scaledWeight = scaleWeight(weight);
+		for (AnytimeEntry entry : open)
+		{
+			entry.fValue = key(entry.gValue, entry.hValue);
+			fringe.push(entry);
+		}
+	}
+
+	private static final class AnytimeEntry extends OpenListEntry
+	{
+		int closedPass = -1;
+		boolean inconsistent;
+
+		AnytimeEntry(AbstractSearchNode node, int gValue, int hValue)
+		{
+			super(node, gValue, hValue, 0);
+		}
+	}
+}
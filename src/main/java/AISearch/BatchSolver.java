@@ -0,0 +1,181 @@
+package AISearch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solves many independent root nodes concurrently with the same search strategy.
+ * <p>
+ * Every job gets its own copy of the search options, so it can time out or be cancelled on its own without affecting the rest of the batch.
+ * Cancelling the future of a job cancels its search. The number of jobs that have been submitted but not finished is bounded,
+ * and submitting blocks until a job finishes, so a large input cannot pile up in memory.
+ * <p>
+ * Jobs run on virtual threads when the runtime has them and on a fixed pool with one thread per processor otherwise.
+ * In both cases no more than the given parallelism run at once.
+ */
+public class BatchSolver implements AutoCloseable
+{
+	private final SearchStrategy strategy;
+	private final SearchOptions options;
+	private final Duration jobTimeout;
+	private final ExecutorService executor;
+	private final Semaphore pendingJobs;
+	private final Semaphore runningJobs;
+
+	/**
+	 * Constructs a solver that runs one job per available processor and allows four times that many to be pending.
+	 *
+	 * @param strategy   The search run on every root node.
+	 * @param options    The settings copied for every job.
+	 * @param jobTimeout The time each job may run for once it has started.
+	 */
+	public BatchSolver(SearchStrategy strategy, SearchOptions options, Duration jobTimeout)
+	{
+		this(strategy, options, jobTimeout, Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param strategy       The search run on every root node.
+	 * @param options        The settings copied for every job.
+	 * @param jobTimeout     The time each job may run for once it has started.
+	 * @param parallelism    The largest number of jobs that run at once.
+	 * @param maxPendingJobs The largest number of jobs that have been submitted but not finished, including the running ones.
+	 * @throws IllegalArgumentException If the parallelism or the number of pending jobs is too small.
+	 */
+	public BatchSolver(SearchStrategy strategy, SearchOptions options, Duration jobTimeout, int parallelism, int maxPendingJobs) throws IllegalArgumentException
+	{
+		if (parallelism < 1 || maxPendingJobs < parallelism)
+		{
+			throw new IllegalArgumentException(String.format("A parallelism of %d with %d pending jobs is not valid. Expected 0 < parallelism <= pending jobs.", parallelism, maxPendingJobs));
+		}
+		this.strategy = strategy;
+		this.options = options;
+		this.jobTimeout = jobTimeout;
+		this.pendingJobs = new Semaphore(maxPendingJobs);
+		this.runningJobs = new Semaphore(parallelism);
+		this.executor = createExecutor(parallelism);
+	}
+
+	/**
+	 * Uses a virtual thread per job when the runtime supports it. The number of jobs running at once is limited by a semaphore
+	 * rather than by the pool, since searches do not block and would otherwise all compete for the carrier threads.
+	 */
+	private static ExecutorService createExecutor(int parallelism)
+	{
+		try
+		{
+			return (ExecutorService) MethodHandles.publicLookup()
+					.findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+					.invoke();
+		} catch (Throwable e)
+		{
+			return Executors.newFixedThreadPool(parallelism, runnable ->
+			{
+				Thread thread = new Thread(runnable, "batch-solver");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Submits a root node to be solved, waiting first if the largest number of pending jobs has been reached.
+	 * The future completes with the goal node, or exceptionally with a {@link GoalNodeNotFoundException}
+	 * (a {@link SearchCancelledException} if the job timed out).
+	 *
+	 * @param originNode The root node to solve.
+	 * @return The future result of the job.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting.
+	 */
+	public CompletableFuture<AbstractSearchNode> submit(AbstractSearchNode originNode) throws InterruptedException
+	{
+		pendingJobs.acquire();
+		SearchOptions jobOptions = options.copy();
+		CompletableFuture<AbstractSearchNode> result = new CompletableFuture<>();
+		result.whenComplete((goalNode, e) ->
+		{
+			if (result.isCancelled())
+			{
+				jobOptions.cancel();
+			}
+		});
+		try
+		{
+			executor.execute(() -> run(originNode, jobOptions, result));
+		} catch (RejectedExecutionException e)
+		{
+			pendingJobs.release();
+			throw e;
+		}
+		return result;
+	}
+
+	/**
+	 * Submits every root node in turn, waiting whenever the largest number of pending jobs has been reached.
+	 *
+	 * @param originNodes The root nodes to solve, which may be produced lazily.
+	 * @return The future results of the jobs in the order of the root nodes.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting.
+	 */
+	public List<CompletableFuture<AbstractSearchNode>> submitAll(Iterable<? extends AbstractSearchNode> originNodes) throws InterruptedException
+	{
+		List<CompletableFuture<AbstractSearchNode>> results = new ArrayList<>();
+		for (AbstractSearchNode originNode : originNodes)
+		{
+			results.add(submit(originNode));
+		}
+		return results;
+	}
+
+	private void run(AbstractSearchNode originNode, SearchOptions jobOptions, CompletableFuture<AbstractSearchNode> result)
+	{
+		try
+		{
+			runningJobs.acquire();
+			try
+			{
+				if (!result.isDone())
+				{
+					jobOptions.setTimeout(jobTimeout);
+					result.complete(strategy.search(originNode, jobOptions));
+				}
+			} finally
+			{
+				runningJobs.release();
+			}
+		} catch (Throwable e)
+		{
+			result.completeExceptionally(e);
+		} finally
+		{
+			pendingJobs.release();
+		}
+	}
+
+	/**
+	 * Stops accepting jobs and waits for the submitted jobs to finish.
+	 * If the calling thread is interrupted while waiting, running jobs are interrupted and the interrupt flag of the calling thread is set again.
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdown();
+		try
+		{
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e)
+		{
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
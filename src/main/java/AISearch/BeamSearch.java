@@ -0,0 +1,212 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * Breadth first beam search.
+ * Each layer is cut down to the given number of nodes with the lowest heuristic values before it is expanded,
+ * and duplicates are only detected against the two previous layers, so the nodes held are bounded by the beam width:
+ * three layers for duplicate detection and the layer being generated, which holds up to the beam width times the branching factor.
+ * <p>
+ * Nodes that support in place moves do not keep their parents. Instead every beam adds a layer to a log holding the last move of each node
+ * and the position of its parent in the beam before, which is enough to replay the path once a goal is found. Entries whose nodes
+ * have no descendant left in the beam are dropped whenever the log has doubled, so it only holds the paths of the current beam,
+ * which share their early moves, at a few bytes per entry. Other nodes keep their parents, so their chains of parents are held instead.
+ * The search is neither complete nor optimal.
+ */
+class BeamSearch
+{
+	private static final Comparator<BeamEntry> BY_HEURISTIC = Comparator.comparingInt(entry -> entry.node.getHeuristicValue());
+
+	/**
+	 * @param originNode The root node of the search, which must not be in the goal state.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param beamWidth  The largest number of nodes kept in each layer.
+	 * @param options    The settings of the search.
+	 * @param statistics The statistics filled in by the search.
+	 * @return The first goal node found.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit, the beam runs out of nodes or the search is cancelled.
+	 */
+	static AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, int beamWidth, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		SearchListener listener = options.getListener();
+		boolean compactPaths = originNode.supportsInPlaceMoves() && originNode.getMoveCount() <= Byte.MAX_VALUE + 1;
+		PathLog pathLog = compactPaths ? new PathLog() : null;
+		ArrayList<BeamEntry> beam = new ArrayList<>();
+		ArrayList<BeamEntry> candidates = new ArrayList<>();
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = compactPaths ? node ->
+		{
+			node.detachParentNode();
+			newNodes.add(node);
+		} : newNodes::add;
+		NodeHashMap<AbstractSearchNode> previousLayer = new NodeHashMap<>();
+		NodeHashMap<AbstractSearchNode> currentLayer = new NodeHashMap<>();
+		NodeHashMap<AbstractSearchNode> nextLayer = new NodeHashMap<>();
+		beam.add(new BeamEntry(originNode, -1));
+		currentLayer.put(originNode, originNode);
+		for (int depth = 0; depth < depthLimit; depth++)
+		{
+			candidates.clear();
+			nextLayer.clear();
+			for (int index = 0; index < beam.size(); index++)
+			{
+				options.checkCancelled();
+				AbstractSearchNode currentNode = beam.get(index).node;
+				newNodes.clear();
+				currentNode.forEachChildNode(collectChild);
+				statistics.recordExpansion(depth, newNodes.size());
+				if (listener != null)
+				{
+					listener.nodeExpanded(currentNode, statistics);
+				}
+				for (AbstractSearchNode node : newNodes)
+				{
+					if (node.inGoalState())
+					{
+						return compactPaths ? pathLog.rebuildPath(originNode, node, index) : node;
+					}
+					if (previousLayer.containsKey(node) || currentLayer.containsKey(node) || !nextLayer.putIfAbsent(node, node))
+					{
+						statistics.duplicatesPruned++;
+					} else
+					{
+						candidates.add(new BeamEntry(node, index));
+					}
+				}
+			}
+			if (listener != null)
+			{
+				listener.layerCompleted(depth, beam.size(), statistics);
+			}
+			statistics.updateFringeSize(candidates.size());
+			statistics.updateClosedSetSize(previousLayer.size() + currentLayer.size() + nextLayer.size());
+			if (candidates.isEmpty())
+			{
+				throw new GoalNodeNotFoundException("The beam ran out of nodes at a depth of: " + (depth + 1));
+			}
+			if (candidates.size() > beamWidth)
+			{
+				candidates.sort(BY_HEURISTIC);
+				candidates.subList(beamWidth, candidates.size()).clear();
+			}
+			if (compactPaths)
+			{
+				pathLog.addLayer(candidates);
+			}
+			ArrayList<BeamEntry> expanded = beam;
+			beam = candidates;
+			candidates = expanded;
+			NodeHashMap<AbstractSearchNode> oldestLayer = previousLayer;
+			previousLayer = currentLayer;
+			currentLayer = nextLayer;
+			nextLayer = oldestLayer;
+		}
+		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+	}
+
+	/**
+	 * A node of a beam with the position of its parent in the beam before.
+	 */
+	private static final class BeamEntry
+	{
+		final AbstractSearchNode node;
+		final int parentIndex;
+
+		BeamEntry(AbstractSearchNode node, int parentIndex)
+		{
+			this.node = node;
+			this.parentIndex = parentIndex;
+		}
+	}
+
+	/**
+	 * The last move of every node kept in each beam after the first, with the position of its parent in the beam before.
+	 * The newest layer always lines up with the current beam.
+	 */
+	private static final class PathLog
+	{
+		private final ArrayList<byte[]> moves = new ArrayList<>();
+		private final ArrayList<int[]> parents = new ArrayList<>();
+		private long size;
+		private long sizeAfterTrim;
+
+		void addLayer(ArrayList<BeamEntry> beam)
+		{
+			byte[] layerMoves = new byte[beam.size()];
+			int[] layerParents = new int[beam.size()];
+			for (int index = 0; index < layerMoves.length; index++)
+			{
+				BeamEntry entry = beam.get(index);
+				layerMoves[index] = (byte) entry.node.getLastMove();
+				layerParents[index] = entry.parentIndex;
+			}
+			moves.add(layerMoves);
+			parents.add(layerParents);
+			size += layerMoves.length;
+			if (size > 2 * sizeAfterTrim)
+			{
+				trim();
+				sizeAfterTrim = size;
+			}
+		}
+
+		/**
+		 * Drops the entries with no descendant in the newest layer, renumbering the ones kept in each layer from the newest back.
+		 */
+		private void trim()
+		{
+			size = moves.get(moves.size() - 1).length;
+			for (int layer = moves.size() - 1; layer > 0; layer--)
+			{
+				int[] layerParents = parents.get(layer);
+				byte[] previousMoves = moves.get(layer - 1);
+				int[] previousParents = parents.get(layer - 1);
+				int[] newIndex = new int[previousMoves.length];
+				Arrays.fill(newIndex, -1);
+				int kept = 0;
+				for (int index = 0; index < layerParents.length; index++)
+				{
+					int parent = layerParents[index];
+					if (newIndex[parent] < 0)
+					{
+						newIndex[parent] = kept++;
+					}
+					layerParents[index] = newIndex[parent];
+				}
+				byte[] keptMoves = new byte[kept];
+				int[] keptParents = new int[kept];
+				for (int index = 0; index < newIndex.length; index++)
+				{
+					if (newIndex[index] >= 0)
+					{
+						keptMoves[newIndex[index]] = previousMoves[index];
+						keptParents[newIndex[index]] = previousParents[index];
+					}
+				}
+				moves.set(layer - 1, keptMoves);
+				parents.set(layer - 1, keptParents);
+				size += kept;
+			}
+		}
+
+		/**
+		 * Reads the moves back from a goal node generated by the node at the given position of the newest beam, and replays them from the origin node.
+		 */
+		AbstractSearchNode rebuildPath(AbstractSearchNode originNode, AbstractSearchNode goalNode, int parentIndex)
+		{
+			byte[] path = new byte[moves.size() + 1];
+			path[moves.size()] = (byte) goalNode.getLastMove();
+			int index = parentIndex;
+			for (int layer = moves.size() - 1; layer >= 0; layer--)
+			{
+				path[layer] = moves.get(layer)[index];
+				index = parents.get(layer)[index];
+			}
+			return new SearchSolution(goalNode, path).replay(originNode);
+		}
+	}
+}
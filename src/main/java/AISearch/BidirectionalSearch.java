@@ -0,0 +1,152 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bidirectional breadth first search.
+ * One search runs forwards from the origin and one runs backwards from the goal, the smaller frontier being expanded a whole layer at a time.
+ * Both sides keep their reached states in a hashed map, and as soon as a layer reaches a state the other side has reached,
+ * the shortest meeting in that layer is stitched into a single path.
+ */
+class BidirectionalSearch
+{
+	private final NodeHashMap<AbstractSearchNode> forwardNodes = new NodeHashMap<>();
+	private final NodeHashMap<AbstractSearchNode> backwardNodes = new NodeHashMap<>();
+	private AbstractSearchNode forwardMeeting;
+	private AbstractSearchNode backwardMeeting;
+	private int meetingDepth = Integer.MAX_VALUE;
+	private final SearchOptions options;
+	private final SearchStatistics statistics;
+	private final SearchListener listener;
+	private final ArrayList<AbstractSearchNode> childNodes = new ArrayList<>();
+	private final Consumer<AbstractSearchNode> collectChild = childNodes::add;
+
+	private BidirectionalSearch(SearchOptions options, SearchStatistics statistics)
+	{
+		this.options = options;
+		this.statistics = statistics;
+		this.listener = options.getListener();
+	}
+
+	/**
+	 * @param originNode The root node of the search, which must not be in the goal state.
+	 * @param depthLimit The length of the longest path that will be searched for.
+	 * @param options    The settings of the search.
+	 * @param statistics The statistics filled in by the search.
+	 * @return The goal node at the end of a shortest path from the origin.
+	 * @throws GoalNodeNotFoundException If no path within the depth limit exists or the search is cancelled.
+	 */
+	static AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		BidirectionalSearch search = new BidirectionalSearch(options, statistics);
+		AbstractSearchNode goalNode = ((BidirectionalSearchNode) originNode).createGoalNode();
+		goalNode.setNodeDepth(0);
+		search.forwardNodes.put(originNode, originNode);
+		search.backwardNodes.put(goalNode, goalNode);
+		ArrayList<AbstractSearchNode> forwardLayer = new ArrayList<>();
+		ArrayList<AbstractSearchNode> backwardLayer = new ArrayList<>();
+		forwardLayer.add(originNode);
+		backwardLayer.add(goalNode);
+		int searchedDepth = 0;
+		while (!forwardLayer.isEmpty() && !backwardLayer.isEmpty() && searchedDepth < depthLimit)
+		{
+			int layerSize;
+			if (forwardLayer.size() <= backwardLayer.size())
+			{
+				layerSize = forwardLayer.size();
+				forwardLayer = search.expandLayer(forwardLayer, true, depthLimit);
+			} else
+			{
+				layerSize = backwardLayer.size();
+				backwardLayer = search.expandLayer(backwardLayer, false, depthLimit);
+			}
+			statistics.updateFringeSize(forwardLayer.size() + backwardLayer.size());
+			statistics.updateClosedSetSize(search.forwardNodes.size() + search.backwardNodes.size());
+			if (search.listener != null)
+			{
+				search.listener.layerCompleted(searchedDepth, layerSize, statistics);
+			}
+			searchedDepth++;
+			if (search.forwardMeeting != null)
+			{
+				return search.stitchPath();
+			}
+		}
+		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+	}
+
+	private ArrayList<AbstractSearchNode> expandLayer(ArrayList<AbstractSearchNode> layer, boolean forwards, int depthLimit) throws SearchCancelledException
+	{
+		NodeHashMap<AbstractSearchNode> ownNodes = forwards ? forwardNodes : backwardNodes;
+		NodeHashMap<AbstractSearchNode> otherNodes = forwards ? backwardNodes : forwardNodes;
+		ArrayList<AbstractSearchNode> nextLayer = new ArrayList<>();
+		for (AbstractSearchNode currentNode : layer)
+		{
+			options.checkCancelled();
+			ArrayList<AbstractSearchNode> newNodes;
+			if (forwards)
+			{
+				childNodes.clear();
+				currentNode.forEachChildNode(collectChild);
+				newNodes = childNodes;
+			} else
+			{
+				newNodes = ((BidirectionalSearchNode) currentNode).generateParentNodes();
+			}
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
+			{
+				listener.nodeExpanded(currentNode, statistics);
+			}
+			for (AbstractSearchNode node : newNodes)
+			{
+				if (node.equalsNode(currentNode) || !ownNodes.putIfAbsent(node, node))
+				{
+					statistics.duplicatesPruned++;
+					continue;
+				}
+				nextLayer.add(node);
+				AbstractSearchNode otherNode = otherNodes.get(node);
+				if (otherNode != null)
+				{
+					int depth = node.getNodeDepth() + otherNode.getNodeDepth();
+					if (depth < meetingDepth && depth <= depthLimit)
+					{
+						meetingDepth = depth;
+						forwardMeeting = forwards ? node : otherNode;
+						backwardMeeting = forwards ? otherNode : node;
+					}
+				}
+			}
+		}
+		return nextLayer;
+	}
+
+	/**
+	 * Follows the backward path from the meeting state to the goal, generating the matching child of the forward path at every step,
+	 * so that the goal node returned has a parent chain all the way back to the origin.
+	 */
+	private AbstractSearchNode stitchPath() throws GoalNodeNotFoundException
+	{
+		AbstractSearchNode currentNode = forwardMeeting;
+		for (AbstractSearchNode target = backwardMeeting.getParentNode(); target != null; target = target.getParentNode())
+		{
+			AbstractSearchNode nextNode = null;
+			for (AbstractSearchNode node : currentNode.generateChildNodes())
+			{
+				if (node.equalsNode(target))
+				{
+					nextNode = node;
+					break;
+				}
+			}
+			if (nextNode == null)
+			{
+				throw new GoalNodeNotFoundException("The backward path could not be followed forwards; generateParentNodes must be the inverse of generateChildNodes.");
+			}
+			currentNode = nextNode;
+		}
+		return currentNode;
+	}
+}
@@ -0,0 +1,24 @@
+package AISearch;
+
+import java.util.ArrayList;
+
+/**
+ * Implemented by search nodes whose goal is a single known state and whose moves can be followed backwards,
+ * so that a search can be run from the goal towards the origin at the same time as from the origin towards the goal.
+ * Every node returned by these methods must also implement this interface.
+ */
+public interface BidirectionalSearchNode
+{
+	/**
+	 * @return A new root node holding the goal state.
+	 */
+	AbstractSearchNode createGoalNode();
+
+	/**
+	 * Generates the nodes holding every state that has the state of this node as a child.
+	 * The returned nodes must be constructed as children of this node, so following their parent nodes leads back to the goal.
+	 *
+	 * @return The predecessors of the current node.
+	 */
+	ArrayList<AbstractSearchNode> generateParentNodes();
+}
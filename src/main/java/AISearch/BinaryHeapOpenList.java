@@ -0,0 +1,134 @@
+package AISearch;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of open list entries ordered by f value, breaking ties towards the larger g value.
+ * Every entry records its position in the heap so its key can be decreased in logarithmic time.
+ */
+public class BinaryHeapOpenList implements OpenList
+{
+	private OpenListEntry[] heap = new OpenListEntry[64];
+	private int size;
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public OpenListEntry peek()
+	{
+		return heap[0];
+	}
+
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			heap[i].heapIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	@Override
+	public void push(OpenListEntry entry)
+	{
+		if (size == heap.length)
+		{
+			heap = Arrays.copyOf(heap, size << 1);
+		}
+		entry.heapIndex = size;
+		heap[size++] = entry;
+		siftUp(entry.heapIndex);
+	}
+
+	@Override
+	public OpenListEntry poll()
+	{
+		OpenListEntry top = heap[0];
+		OpenListEntry last = heap[--size];
+		heap[size] = null;
+		if (size > 0)
+		{
+			heap[0] = last;
+			last.heapIndex = 0;
+			siftDown(0);
+		}
+		top.heapIndex = -1;
+		return top;
+	}
+
+	@Override
+	public void decreaseKey(OpenListEntry entry, AbstractSearchNode node, int gValue, int fValue)
+	{
+		entry.node = node;
+		entry.gValue = gValue;
+		entry.fValue = fValue;
+		if (entry.isOpen())
+		{
+			siftUp(entry.heapIndex);
+		} else
+		{
+			push(entry);
+		}
+	}
+
+	/**
+	 * @return True if the first entry is polled before the second one.
+	 */
+	boolean before(OpenListEntry a, OpenListEntry b)
+	{
+		return a.fValue < b.fValue || (a.fValue == b.fValue && a.gValue > b.gValue);
+	}
+
+	private void siftUp(int index)
+	{
+		OpenListEntry entry = heap[index];
+		while (index > 0)
+		{
+			int parent = (index - 1) >>> 1;
+			if (!before(entry, heap[parent]))
+			{
+				break;
+			}
+			heap[index] = heap[parent];
+			heap[index].heapIndex = index;
+			index = parent;
+		}
+		heap[index] = entry;
+		entry.heapIndex = index;
+	}
+
+	private void siftDown(int index)
+	{
+		OpenListEntry entry = heap[index];
+		int half = size >>> 1;
+		while (index < half)
+		{
+			int child = (index << 1) + 1;
+			if (child + 1 < size && before(heap[child + 1], heap[child]))
+			{
+				child++;
+			}
+			if (!before(heap[child], entry))
+			{
+				break;
+			}
+			heap[index] = heap[child];
+			heap[index].heapIndex = index;
+			index = child;
+		}
+		heap[index] = entry;
+		entry.heapIndex = index;
+	}
+}
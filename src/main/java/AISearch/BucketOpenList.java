@@ -0,0 +1,229 @@
+package AISearch;
+
+import java.util.Arrays;
+
+/**
+ * An open list that keeps a bucket for every f value, and within each bucket a list for every g value,
+ * so entries are added, removed and have their keys decreased in constant time without comparing them.
+ * The entry polled is taken from the lowest non-empty f bucket and its highest non-empty g list,
+ * the most recently added entry first or the least recently added entry first.
+ * <p>
+ * This suits searches whose f values are small non-negative integers, as the buckets are indexed by them directly.
+ * When f is g plus a consistent heuristic the lowest f value never falls, so finding the next bucket takes constant amortised time.
+ * When f does not include g, as in greedy best first search where f is the heuristic value alone, g may be above f
+ * and the lowest f value may fall again. Both are supported: the lists of each bucket grow with the g values pushed,
+ * and pushing an entry below the lowest f value moves the search for the next bucket back to it.
+ */
+public class BucketOpenList implements OpenList
+{
+	private final boolean lastInFirstOut;
+	private Bucket[] buckets = new Bucket[64];
+	private int lowestFValue;
+	private int size;
+
+	/**
+	 * @param lastInFirstOut True to poll the most recently added of the entries with equal f and g values first,
+	 *                       false to poll the least recently added first.
+	 */
+	public BucketOpenList(boolean lastInFirstOut)
+	{
+		this.lastInFirstOut = lastInFirstOut;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public OpenListEntry peek()
+	{
+		return size == 0 ? null : lowestBucket().first();
+	}
+
+	@Override
+	public void clear()
+	{
+		for (Bucket bucket : buckets)
+		{
+			if (bucket != null && bucket.size > 0)
+			{
+				bucket.clear();
+			}
+		}
+		size = 0;
+	}
+
+	/**
+	 * @throws IllegalArgumentException If the f value of the entry is negative.
+	 */
+	@Override
+	public void push(OpenListEntry entry) throws IllegalArgumentException
+	{
+		int fValue = entry.fValue;
+		if (fValue < 0)
+		{
+			throw new IllegalArgumentException(String.format("An f value of %d is too low. Expected >= 0.", fValue));
+		}
+		if (fValue >= buckets.length)
+		{
+			buckets = Arrays.copyOf(buckets, Math.max(fValue + 1, buckets.length << 1));
+		}
+		Bucket bucket = buckets[fValue];
+		if (bucket == null)
+		{
+			bucket = new Bucket(fValue + 1);
+			buckets[fValue] = bucket;
+		}
+		bucket.add(entry, lastInFirstOut);
+		entry.heapIndex = 0;
+		if (size++ == 0 || fValue < lowestFValue)
+		{
+			lowestFValue = fValue;
+		}
+	}
+
+	@Override
+	public OpenListEntry poll()
+	{
+		Bucket bucket = lowestBucket();
+		OpenListEntry entry = bucket.first();
+		bucket.remove(entry);
+		entry.heapIndex = -1;
+		size--;
+		return entry;
+	}
+
+	@Override
+	public void decreaseKey(OpenListEntry entry, AbstractSearchNode node, int gValue, int fValue)
+	{
+		if (entry.isOpen())
+		{
+			buckets[entry.fValue].remove(entry);
+			size--;
+		}
+		entry.node = node;
+		entry.gValue = gValue;
+		entry.fValue = fValue;
+		push(entry);
+	}
+
+	private Bucket lowestBucket()
+	{
+		while (buckets[lowestFValue] == null || buckets[lowestFValue].size == 0)
+		{
+			lowestFValue++;
+		}
+		return buckets[lowestFValue];
+	}
+
+	/**
+	 * The entries with one f value, in doubly linked lists indexed by their g value.
+	 */
+	private static final class Bucket
+	{
+		OpenListEntry[] heads;
+		OpenListEntry[] tails;
+		int highestGValue = -1;
+		int size;
+
+		Bucket(int gValueCount)
+		{
+			heads = new OpenListEntry[gValueCount];
+			tails = new OpenListEntry[gValueCount];
+		}
+
+		void add(OpenListEntry entry, boolean lastInFirstOut)
+		{
+			int gValue = entry.gValue;
+			if (gValue >= heads.length)
+			{
+				// g is above f whenever f does not include g, as in greedy best first search, so the lists grow like the buckets do
+				int length = Math.max(gValue + 1, heads.length << 1);
+				heads = Arrays.copyOf(heads, length);
+				tails = Arrays.copyOf(tails, length);
+			}
+			if (lastInFirstOut)
+			{
+				entry.previous = null;
+				entry.next = heads[gValue];
+				if (heads[gValue] != null)
+				{
+					heads[gValue].previous = entry;
+				} else
+				{
+					tails[gValue] = entry;
+				}
+				heads[gValue] = entry;
+			} else
+			{
+				entry.next = null;
+				entry.previous = tails[gValue];
+				if (tails[gValue] != null)
+				{
+					tails[gValue].next = entry;
+				} else
+				{
+					heads[gValue] = entry;
+				}
+				tails[gValue] = entry;
+			}
+			highestGValue = Math.max(highestGValue, gValue);
+			size++;
+		}
+
+		OpenListEntry first()
+		{
+			while (heads[highestGValue] == null)
+			{
+				highestGValue--;
+			}
+			return heads[highestGValue];
+		}
+
+		void remove(OpenListEntry entry)
+		{
+			int gValue = entry.gValue;
+			if (entry.previous != null)
+			{
+				entry.previous.next = entry.next;
+			} else
+			{
+				heads[gValue] = entry.next;
+			}
+			if (entry.next != null)
+			{
+				entry.next.previous = entry.previous;
+			} else
+			{
+				tails[gValue] = entry.previous;
+			}
+			entry.next = entry.previous = null;
+			size--;
+		}
+
+		void clear()
+		{
+			for (int gValue = 0; gValue <= highestGValue; gValue++)
+			{
+				for (OpenListEntry entry = heads[gValue]; entry != null; )
+				{
+					OpenListEntry next = entry.next;
+					entry.next = entry.previous = null;
+					entry.heapIndex = -1;
+					entry = next;
+				}
+				heads[gValue] = tails[gValue] = null;
+			}
+			highestGValue = -1;
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,755 @@
+package AISearch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * A* search that regularly writes its progress to a checkpoint file, so a search that is stopped, or whose process dies,
+ * can be resumed from the last checkpoint instead of starting over.
+ * The origin node and its descendants must {@link AbstractSearchNode#hasPackedState() have packed states}
+ * and must be able to {@link AbstractSearchNode#createNodeFromPackedState(long) decode them}.
+ * <p>
+ * The file starts with the settings of the search, followed by segments. Each segment holds the states that were reached, improved,
+ * or closed since the previous segment, with their path cost, heuristic value and last move, and ends with the counters of the search.
+ * Reading the segments in order and keeping the last record of each state gives the open and closed lists at the last checkpoint.
+ * A segment that was only partly written is ignored. Once the records written are more than twice the states reached,
+ * the next checkpoint merges the file into a new one that holds only the last record of each state and replaces the old one.
+ * <p>
+ * At a checkpoint the search thread only copies the changed records into arrays, which a background thread then writes out;
+ * if the previous write has not finished the checkpoint is put off. Merging the file is also left to the background thread,
+ * which reads the file back while the search carries on and needs about 32 bytes for every state while it does. A search that is cancelled or times out writes a last checkpoint before it stops.
+ * Ties between equal f and g values are broken by the packed state, so a resumed search expands the same nodes and finds the same goal node
+ * as a search that was never stopped. Paths are rebuilt from the last move of each state, so nodes do not keep their parents.
+ */
+public class CheckpointedHeuristicSearch
+{
+	private static final int FILE_MAGIC = 0x43484B50;
+	private static final int FILE_VERSION = 2;
+	private static final int SEGMENT_MAGIC = 0x5345474D;
+	private static final int SEGMENT_END = 0x454E4453;
+	private static final int HEADER_BYTES = 3 * Integer.BYTES + 1 + Long.BYTES;
+	private static final int SEGMENT_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+	private static final int RECORD_BYTES = 2 * Long.BYTES;
+	private static final int COUNTER_BYTES = 5 * Long.BYTES + Integer.BYTES;
+	private static final int TRAILER_BYTES = COUNTER_BYTES + Integer.BYTES;
+	private static final int CHUNK_RECORDS = 1 << 16;
+	private static final int NO_MOVE = 0xFF;
+	private static final int CHECK_INTERVAL_MASK = 0xFF;
+
+	private final Path checkpointFile;
+	private final long intervalNanos;
+
+	/**
+	 * @param checkpointFile The file the progress of the search is written to.
+	 * @param interval       The time between checkpoints.
+	 * @throws IllegalArgumentException If the interval is negative.
+	 */
+	public CheckpointedHeuristicSearch(Path checkpointFile, Duration interval) throws IllegalArgumentException
+	{
+		if (interval.isNegative())
+		{
+			throw new IllegalArgumentException(String.format("A checkpoint interval of %s is too low. Expected >= 0.", interval));
+		}
+		this.checkpointFile = checkpointFile;
+		this.intervalNanos = interval.toNanos();
+	}
+
+	/**
+	 * Starts a new search, replacing any checkpoint file left by an earlier one.
+	 *
+	 * @param originNode The root node of the heuristic search.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 *                   Any nodes at this depth will not be expanded.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found, or the search is cancelled.
+	 * @throws IOException               If a checkpoint can not be written.
+	 * @throws IllegalArgumentException  If the depth limit is too small or the origin node has no packed state.
+	 */
+	public AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws GoalNodeNotFoundException, IOException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (!originNode.hasPackedState() || !originNode.supportsInPlaceMoves())
+		{
+			throw new IllegalArgumentException("Checkpointed search needs nodes with packed states and in place moves.");
+		}
+		SearchStatistics statistics = options.startStatistics();
+		try
+		{
+			originNode.setNodeDepth(0);
+			if (originNode.inGoalState())
+			{
+				return originNode;
+			}
+			if (!originNode.isSolvable())
+			{
+				throw new GoalNodeNotFoundException("No goal state can be reached from the origin node.");
+			}
+			Files.deleteIfExists(checkpointFile);
+			Run run = new Run(originNode, depthLimit, options.isReopenClosedNodes(), options, statistics);
+			run.entries.put(originNode, run.createEntry(originNode, 0, originNode.getHeuristicValue(), -1));
+			run.fringe.push(run.entries.get(originNode));
+			return run.search();
+		} catch (GoalNodeNotFoundException e)
+		{
+			e.setStatistics(statistics);
+			throw e;
+		} finally
+		{
+			statistics.stop();
+		}
+	}
+
+	/**
+	 * Continues the search saved in the checkpoint file from its last complete checkpoint, with the depth limit and settings it was started with.
+	 * The counters of the statistics carry on from the checkpoint.
+	 *
+	 * @param originNode The root node the search was started from.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The goal node with the lowest path cost, the same one the search would have found had it not been stopped.
+	 * @throws GoalNodeNotFoundException If all nodes have been expanded to the depth limit and no goal node is found, or the search is cancelled.
+	 * @throws IOException               If the checkpoint file can not be read, was written for another origin node, or a checkpoint can not be written.
+	 */
+	public AbstractSearchNode resume(AbstractSearchNode originNode, SearchOptions options) throws GoalNodeNotFoundException, IOException
+	{
+		SearchStatistics statistics = options.startStatistics();
+		try
+		{
+			originNode.setNodeDepth(0);
+			Run run = load(originNode, options, statistics);
+			return run.search();
+		} catch (GoalNodeNotFoundException e)
+		{
+			e.setStatistics(statistics);
+			throw e;
+		} finally
+		{
+			statistics.stop();
+		}
+	}
+
+	/**
+	 * Reads the settings and every complete segment of the checkpoint file and rebuilds the open and closed lists from them.
+	 */
+	private Run load(AbstractSearchNode originNode, SearchOptions options, SearchStatistics statistics) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(checkpointFile, StandardOpenOption.READ))
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			if (!readFully(channel, header, 0) || header.getInt() != FILE_MAGIC || header.getInt() != FILE_VERSION)
+			{
+				throw new IOException(checkpointFile + " is not a search checkpoint.");
+			}
+			int depthLimit = header.getInt();
+			boolean reopenClosedNodes = header.get() != 0;
+			if (header.getLong() != originNode.getPackedState())
+			{
+				throw new IOException(checkpointFile + " was written for another origin node.");
+			}
+			Run run = new Run(originNode, depthLimit, reopenClosedNodes, options, statistics);
+			long segments = readSegments(channel, run::restore, counters ->
+			{
+				statistics.nodesGenerated = counters.getLong();
+				statistics.nodesExpanded = counters.getLong();
+				statistics.duplicatesPruned = counters.getLong();
+				statistics.peakFringeSize = counters.getLong();
+				statistics.peakClosedSetSize = counters.getLong();
+				statistics.maxDepth = counters.getInt();
+			});
+			if (segments == 0)
+			{
+				throw new IOException(checkpointFile + " holds no complete checkpoint.");
+			}
+			run.entries.forEachValue(entry ->
+			{
+				if (entry.open)
+				{
+					run.fringe.push(entry);
+				}
+			});
+			return run;
+		}
+	}
+
+	/**
+	 * Reads every complete segment after the header of a checkpoint file, handing each record and then the counters of the segment to the consumers.
+	 * The records are read in chunks of a fixed size, so a segment of any size can be read.
+	 *
+	 * @return The number of complete segments read.
+	 */
+	private long readSegments(FileChannel channel, RecordConsumer records, Consumer<ByteBuffer> counters) throws IOException
+	{
+		long fileSize = channel.size();
+		long position = HEADER_BYTES;
+		long segments = 0;
+		ByteBuffer segmentHeader = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+		ByteBuffer chunk = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_BYTES);
+		while (readFully(channel, segmentHeader.clear(), position) && segmentHeader.getInt() == SEGMENT_MAGIC)
+		{
+			long recordCount = segmentHeader.getLong();
+			long recordsPosition = position + SEGMENT_HEADER_BYTES;
+			if (recordCount < 0 || recordCount > (fileSize - recordsPosition) / RECORD_BYTES)
+			{
+				break;
+			}
+			// the trailer is checked before any record is applied, since the process may have stopped while the segment was written
+			long trailerPosition = recordsPosition + recordCount * RECORD_BYTES;
+			if (!readFully(channel, trailer.clear(), trailerPosition) || trailer.getInt(COUNTER_BYTES) != SEGMENT_END)
+			{
+				break;
+			}
+			for (long read = 0; read < recordCount; )
+			{
+				int count = (int) Math.min(CHUNK_RECORDS, recordCount - read);
+				chunk.clear().limit(count * RECORD_BYTES);
+				if (!readFully(channel, chunk, recordsPosition + read * RECORD_BYTES))
+				{
+					throw new IOException(checkpointFile + " was truncated while it was read.");
+				}
+				while (chunk.hasRemaining())
+				{
+					records.accept(chunk.getLong(), chunk.getLong());
+				}
+				read += count;
+			}
+			counters.accept(trailer);
+			position = trailerPosition + TRAILER_BYTES;
+			segments++;
+		}
+		return segments;
+	}
+
+	/**
+	 * Fills the buffer from the given position of the file.
+	 *
+	 * @return False if the file ends first.
+	 */
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		long offset = position - buffer.position();
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, offset + buffer.position()) < 0)
+			{
+				return false;
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+
+	private interface RecordConsumer
+	{
+		void accept(long state, long record);
+	}
+
+	/**
+	 * The state of one search: its open and closed lists, the records changed since the last checkpoint, and the thread writing checkpoints.
+	 */
+	private final class Run
+	{
+		final AbstractSearchNode originNode;
+		final int depthLimit;
+		final boolean reopenClosedNodes;
+		final SearchOptions options;
+		final SearchStatistics statistics;
+		final BinaryHeapOpenList fringe = new StateOrderedOpenList();
+		final NodeHashMap<CheckpointEntry> entries = new NodeHashMap<>();
+		final ArrayList<CheckpointEntry> changedEntries = new ArrayList<>();
+		// the first checkpoint of every run merges the file into a new one, which also drops any partly written segment left by the last run
+		long loggedRecords = Long.MAX_VALUE;
+		private ExecutorService writer;
+		private Future<?> pendingWrite;
+
+		Run(AbstractSearchNode originNode, int depthLimit, boolean reopenClosedNodes, SearchOptions options, SearchStatistics statistics)
+		{
+			this.originNode = originNode;
+			this.depthLimit = depthLimit;
+			this.reopenClosedNodes = reopenClosedNodes;
+			this.options = options;
+			this.statistics = statistics;
+		}
+
+		CheckpointEntry createEntry(AbstractSearchNode node, int gValue, int hValue, int lastMove)
+		{
+			CheckpointEntry entry = new CheckpointEntry(node, node.getPackedState(), gValue, hValue, lastMove);
+			markChanged(entry);
+			return entry;
+		}
+
+		void markChanged(CheckpointEntry entry)
+		{
+			if (!entry.changed)
+			{
+				entry.changed = true;
+				changedEntries.add(entry);
+			}
+		}
+
+		/**
+		 * Applies a record read from the checkpoint file, replacing the values of the state from earlier segments.
+		 */
+		void restore(long state, long record)
+		{
+			AbstractSearchNode node = originNode.createNodeFromPackedState(state);
+			node.setNodeDepth((int) (record >>> 32));
+			CheckpointEntry entry = entries.get(node);
+			if (entry == null)
+			{
+				entry = new CheckpointEntry(node, state, 0, 0, -1);
+				entries.put(node, entry);
+			}
+			entry.decode(node, record);
+		}
+
+		AbstractSearchNode search() throws GoalNodeNotFoundException, IOException
+		{
+			SearchListener listener = options.getListener();
+			ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+			Consumer<AbstractSearchNode> collectChild = node ->
+			{
+				node.detachParentNode();
+				newNodes.add(node);
+			};
+			long nextCheckpointNanos = System.nanoTime() + intervalNanos;
+			writer = Executors.newSingleThreadExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, "search-checkpoint");
+				thread.setDaemon(true);
+				return thread;
+			});
+			try
+			{
+				while (!fringe.isEmpty())
+				{
+					if ((statistics.nodesExpanded & CHECK_INTERVAL_MASK) == 0 && System.nanoTime() - nextCheckpointNanos >= 0 && checkpoint())
+					{
+						nextCheckpointNanos = System.nanoTime() + intervalNanos;
+					}
+					if (options.isStopRequested() || Thread.currentThread().isInterrupted())
+					{
+						awaitWrite();
+						checkpoint();
+						awaitWrite();
+						options.checkCancelled();
+						throw new SearchCancelledException();
+					}
+					CheckpointEntry currentEntry = (CheckpointEntry) fringe.poll();
+					markChanged(currentEntry);
+					AbstractSearchNode currentNode = currentEntry.node;
+					if (currentNode.inGoalState())
+					{
+						awaitWrite();
+						return SearchSolution.rebuildPath(originNode, currentNode, state -> entries.get(state).lastMove);
+					}
+					if (currentEntry.gValue >= depthLimit)
+					{
+						continue;
+					}
+					newNodes.clear();
+					currentNode.forEachChildNode(collectChild);
+					statistics.recordExpansion(currentEntry.gValue, newNodes.size());
+					if (listener != null)
+					{
+						listener.nodeExpanded(currentNode, statistics);
+					}
+					for (AbstractSearchNode node : newNodes)
+					{
+						int gValue = node.getNodeDepth();
+						CheckpointEntry entry = entries.get(node);
+						if (entry == null)
+						{
+							int hValue = node.getHeuristicValue();
+							entry = createEntry(node, gValue, hValue, node.getLastMove());
+							entries.put(node, entry);
+							fringe.push(entry);
+						} else if (gValue < entry.gValue && (entry.isOpen() || reopenClosedNodes))
+						{
+							entry.lastMove = node.getLastMove();
+							markChanged(entry);
+							fringe.decreaseKey(entry, node, gValue, gValue + entry.hValue);
+						} else
+						{
+							statistics.duplicatesPruned++;
+						}
+					}
+					statistics.updateFringeSize(fringe.size());
+					statistics.updateClosedSetSize(entries.size());
+				}
+				awaitWrite();
+				throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+			} finally
+			{
+				writer.shutdown();
+				try
+				{
+					writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+				} catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		/**
+		 * Copies the records changed since the last checkpoint and hands them to the writer thread,
+		 * which also merges the file if it has grown too large.
+		 *
+		 * @return False if the previous checkpoint is still being written, in which case the changes are kept for the next one.
+		 */
+		boolean checkpoint() throws IOException
+		{
+			if (pendingWrite != null && !pendingWrite.isDone())
+			{
+				return false;
+			}
+			awaitWrite();
+			ArrayList<long[]> records = new ArrayList<>();
+			for (int start = 0; start < changedEntries.size(); start += CHUNK_RECORDS)
+			{
+				long[] chunk = new long[2 * Math.min(CHUNK_RECORDS, changedEntries.size() - start)];
+				for (int index = 0; index < chunk.length; index += 2)
+				{
+					CheckpointEntry entry = changedEntries.get(start + index / 2);
+					entry.changed = false;
+					chunk[index] = entry.state;
+					chunk[index + 1] = entry.encode();
+				}
+				records.add(chunk);
+			}
+			long recordCount = changedEntries.size();
+			changedEntries.clear();
+			boolean merge = loggedRecords > 2L * entries.size();
+			// every state reached has a record in the file or among the changes, so the merged file holds one record for each of them
+			loggedRecords = merge ? entries.size() : loggedRecords + recordCount;
+			long[] counters = {statistics.nodesGenerated, statistics.nodesExpanded, statistics.duplicatesPruned,
+					statistics.peakFringeSize, statistics.peakClosedSetSize, statistics.maxDepth};
+			pendingWrite = writer.submit(() ->
+			{
+				try
+				{
+					if (merge)
+					{
+						writeMerged(records, counters);
+					} else
+					{
+						appendSegment(records, recordCount, counters);
+					}
+				} catch (IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			});
+			return true;
+		}
+
+		private void awaitWrite() throws IOException
+		{
+			if (pendingWrite == null)
+			{
+				return;
+			}
+			boolean interrupted = false;
+			try
+			{
+				while (true)
+				{
+					try
+					{
+						pendingWrite.get();
+						break;
+					} catch (InterruptedException e)
+					{
+						// the checkpoint is still written so a cancelled search can be resumed
+						interrupted = true;
+					}
+				}
+			} catch (ExecutionException e)
+			{
+				throw e.getCause() instanceof UncheckedIOException cause ? cause.getCause() : new IOException(e.getCause());
+			} finally
+			{
+				pendingWrite = null;
+				if (interrupted)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		/**
+		 * Appends a segment holding the changed records to the checkpoint file. Runs on the writer thread.
+		 */
+		private void appendSegment(List<long[]> records, long recordCount, long[] counters) throws IOException
+		{
+			try (FileChannel channel = FileChannel.open(checkpointFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+			{
+				ByteBuffer buffer = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_BYTES);
+				buffer.putInt(SEGMENT_MAGIC).putLong(recordCount);
+				for (long[] chunk : records)
+				{
+					for (int index = 0; index < chunk.length; index += 2)
+					{
+						putRecord(channel, buffer, chunk[index], chunk[index + 1]);
+					}
+				}
+				putTrailer(channel, buffer, counters);
+				channel.force(false);
+			}
+		}
+
+		/**
+		 * Reads every complete segment of the checkpoint file, if there is one, and the changed records into a table that keeps the last record of each state,
+		 * then writes a new file holding only that table as one segment and moves it over the old one.
+		 * This also drops a partly written segment left at the end of the file by an earlier run. Runs on the writer thread.
+		 */
+		private void writeMerged(List<long[]> records, long[] counters) throws IOException
+		{
+			RecordTable merged = new RecordTable();
+			if (Files.exists(checkpointFile))
+			{
+				try (FileChannel channel = FileChannel.open(checkpointFile, StandardOpenOption.READ))
+				{
+					readSegments(channel, merged::put, trailer -> {});
+				}
+			}
+			for (long[] chunk : records)
+			{
+				for (int index = 0; index < chunk.length; index += 2)
+				{
+					merged.put(chunk[index], chunk[index + 1]);
+				}
+			}
+			Path target = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+			try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+			{
+				ByteBuffer buffer = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_BYTES);
+				buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(depthLimit).put((byte) (reopenClosedNodes ? 1 : 0)).putLong(originNode.getPackedState());
+				buffer.putInt(SEGMENT_MAGIC).putLong(merged.size());
+				for (long slot = 0; slot < merged.capacity(); slot++)
+				{
+					if (merged.isUsed(slot))
+					{
+						putRecord(channel, buffer, merged.stateAt(slot), merged.recordAt(slot));
+					}
+				}
+				putTrailer(channel, buffer, counters);
+				channel.force(false);
+			}
+			Files.move(target, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+
+		private static void putRecord(FileChannel channel, ByteBuffer buffer, long state, long record) throws IOException
+		{
+			if (buffer.remaining() < RECORD_BYTES)
+			{
+				writeFully(channel, buffer);
+			}
+			buffer.putLong(state).putLong(record);
+		}
+
+		private static void putTrailer(FileChannel channel, ByteBuffer buffer, long[] counters) throws IOException
+		{
+			if (buffer.remaining() < TRAILER_BYTES)
+			{
+				writeFully(channel, buffer);
+			}
+			for (int i = 0; i < 5; i++)
+			{
+				buffer.putLong(counters[i]);
+			}
+			buffer.putInt((int) counters[5]).putInt(SEGMENT_END);
+			writeFully(channel, buffer);
+		}
+
+		private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * An open addressing table from packed states to their last record, used by the writer thread to merge the checkpoint file.
+	 * Its arrays are split into pages so the number of states is not limited by the largest array.
+	 */
+	private static final class RecordTable
+	{
+		private static final int PAGE_BITS = 20;
+		private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+		// records never have the sign bit set since path costs are not negative, so it marks the slots in use
+		private static final long USED = Long.MIN_VALUE;
+		private long[][] states;
+		private long[][] records;
+		private long capacity;
+		private long size;
+
+		RecordTable()
+		{
+			allocate(1 << 10);
+		}
+
+		private void allocate(long capacity)
+		{
+			this.capacity = capacity;
+			int pageLength = (int) Math.min(capacity, 1 << PAGE_BITS);
+			int pageCount = (int) (capacity / pageLength);
+			states = new long[pageCount][pageLength];
+			records = new long[pageCount][pageLength];
+		}
+
+		void put(long state, long record)
+		{
+			if (size >= capacity - (capacity >>> 2))
+			{
+				grow();
+			}
+			long slot = find(state);
+			int page = (int) (slot >>> PAGE_BITS);
+			int offset = (int) slot & PAGE_MASK;
+			if (records[page][offset] == 0)
+			{
+				size++;
+			}
+			states[page][offset] = state;
+			records[page][offset] = record | USED;
+		}
+
+		/**
+		 * @return The slot holding the state, or the empty slot it would be put in.
+		 */
+		private long find(long state)
+		{
+			long mask = capacity - 1;
+			long hash = state * 0x9E3779B97F4A7C15L;
+			long slot = (hash ^ hash >>> 32) & mask;
+			while (isUsed(slot) && stateAt(slot) != state)
+			{
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+
+		private void grow()
+		{
+			long[][] oldStates = states;
+			long[][] oldRecords = records;
+			allocate(capacity << 1);
+			for (int page = 0; page < oldStates.length; page++)
+			{
+				for (int offset = 0; offset < oldStates[page].length; offset++)
+				{
+					if (oldRecords[page][offset] != 0)
+					{
+						long slot = find(oldStates[page][offset]);
+						states[(int) (slot >>> PAGE_BITS)][(int) slot & PAGE_MASK] = oldStates[page][offset];
+						records[(int) (slot >>> PAGE_BITS)][(int) slot & PAGE_MASK] = oldRecords[page][offset];
+					}
+				}
+			}
+		}
+
+		long size()
+		{
+			return size;
+		}
+
+		long capacity()
+		{
+			return capacity;
+		}
+
+		boolean isUsed(long slot)
+		{
+			return records[(int) (slot >>> PAGE_BITS)][(int) slot & PAGE_MASK] != 0;
+		}
+
+		long stateAt(long slot)
+		{
+			return states[(int) (slot >>> PAGE_BITS)][(int) slot & PAGE_MASK];
+		}
+
+		long recordAt(long slot)
+		{
+			return records[(int) (slot >>> PAGE_BITS)][(int) slot & PAGE_MASK] & ~USED;
+		}
+	}
+
+	/**
+	 * An open list that breaks ties between entries with equal f and g values by their packed state, so the order nodes are expanded in
+	 * does not depend on the order they were added in.
+	 */
+	private static final class StateOrderedOpenList extends BinaryHeapOpenList
+	{
+		@Override
+		boolean before(OpenListEntry a, OpenListEntry b)
+		{
+			if (a.fValue != b.fValue)
+			{
+				return a.fValue < b.fValue;
+			}
+			if (a.gValue != b.gValue)
+			{
+				return a.gValue > b.gValue;
+			}
+			return ((CheckpointEntry) a).state < ((CheckpointEntry) b).state;
+		}
+	}
+
+	private static final class CheckpointEntry extends OpenListEntry
+	{
+		final long state;
+		int lastMove;
+		boolean changed;
+		boolean open;
+
+		CheckpointEntry(AbstractSearchNode node, long state, int gValue, int hValue, int lastMove)
+		{
+			super(node, gValue, hValue, gValue + hValue);
+			this.state = state;
+			this.lastMove = lastMove;
+		}
+
+		/**
+		 * @return The path cost in the upper half, then the heuristic value, the last move and whether the entry is open.
+		 */
+		long encode()
+		{
+			return (long) gValue << 32 | (long) (hValue & 0xFFFF) << 16 | (lastMove & NO_MOVE) << 8 | (isOpen() ? 1 : 0);
+		}
+
+		void decode(AbstractSearchNode node, long record)
+		{
+			this.node = node;
+			gValue = (int) (record >>> 32);
+			hValue = (int) (record >>> 16) & 0xFFFF;
+			fValue = gValue + hValue;
+			int move = (int) (record >>> 8) & 0xFF;
+			lastMove = move == NO_MOVE ? -1 : move;
+			open = (record & 1) != 0;
+		}
+	}
+}
@@ -0,0 +1,608 @@
+package AISearch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Breadth first search that keeps its layers on disk, for enumerating state spaces that are too large to hold in memory.
+ * The origin node and its descendants must {@link AbstractSearchNode#hasPackedState() have packed states}
+ * and must be able to {@link AbstractSearchNode#createNodeFromPackedState(long) decode them}.
+ * <p>
+ * Each layer is a file of sorted, distinct packed states. The children of a layer are gathered in a buffer that is sorted,
+ * stripped of duplicates and written out as a run whenever it fills, so duplicates are not detected when states are generated
+ * but when the runs are merged. The merged children are then subtracted against the layer they came from and the layer before that,
+ * which removes every state reached before as long as every move can be reverted.
+ * <p>
+ * Files are only read and written sequentially through block buffers, and memory use is bounded by the buffer size
+ * however large the state space is. Optionally every layer is also written to a single depth indexed file.
+ */
+public class ExternalBreadthFirstSearch
+{
+	private static final int BLOCK_BYTES = 1 << 13;
+	private static final int MIN_BUFFER_SIZE = 16 * BLOCK_BYTES;
+	private static final int LAYER_FILE_MAGIC = 0x4C415931;
+	private static final int LAYER_FILE_VERSION = 1;
+	private static final int TRAILER_BYTES = 3 * Integer.BYTES;
+
+	private final Path directory;
+	private final int bufferSize;
+	private Path layerFile;
+
+	/**
+	 * @param directory  The directory the temporary layer and run files are written to.
+	 * @param bufferSize The number of bytes of memory used for buffers. Half of them gather child states, the rest are split
+	 *                   between the files being merged.
+	 * @throws IllegalArgumentException If the buffer size is too small.
+	 */
+	public ExternalBreadthFirstSearch(Path directory, int bufferSize) throws IllegalArgumentException
+	{
+		if (bufferSize < MIN_BUFFER_SIZE)
+		{
+			throw new IllegalArgumentException(String.format("A buffer size of %d bytes is too low. Expected at least %d.", bufferSize, MIN_BUFFER_SIZE));
+		}
+		this.directory = directory;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Sets a file that every layer is written to, so the states at any depth can be read back with {@link #forEachState(Path, int, LongConsumer)}.
+	 *
+	 * @param layerFile The file, or null to only keep the number of states at each depth.
+	 * @return This instance.
+	 */
+	public ExternalBreadthFirstSearch setLayerFile(Path layerFile)
+	{
+		this.layerFile = layerFile;
+		return this;
+	}
+
+	/**
+	 * Enumerates every state reachable from the origin node up to the depth limit.
+	 *
+	 * @param originNode The root node of the search.
+	 * @param depthLimit The depth of the deepest layer that will be generated.
+	 * @param options    The settings of the search, which also hold its statistics once it finishes.
+	 * @return The number of states first reached at each depth, starting with the origin node at depth 0.
+	 * @throws IOException              If a layer or run file can not be read or written.
+	 * @throws SearchCancelledException If the search is cancelled.
+	 * @throws IllegalArgumentException If the depth limit is too small or the origin node does not have a packed state.
+	 */
+	public long[] search(AbstractSearchNode originNode, int depthLimit, SearchOptions options) throws IOException, SearchCancelledException, IllegalArgumentException
+	{
+		if (depthLimit < 1)
+		{
+			throw new IllegalArgumentException(String.format("A depth limit of %d is too low. Expected > 1.", depthLimit));
+		}
+		if (!originNode.hasPackedState())
+		{
+			throw new IllegalArgumentException("An external breadth first search needs nodes with packed states.");
+		}
+		SearchStatistics statistics = options.startStatistics();
+		SearchListener listener = options.getListener();
+		List<Path> temporaryFiles = new ArrayList<>();
+		long[] histogram = new long[16];
+		int layerCount = 0;
+		try (LongWriter layerOutput = layerFile == null ? null : new LongWriter(layerFile))
+		{
+			Path previousLayer = null;
+			Path currentLayer = createTemporaryFile(temporaryFiles);
+			try (LongWriter writer = new LongWriter(currentLayer))
+			{
+				writer.write(originNode.getPackedState());
+			}
+			if (layerOutput != null)
+			{
+				layerOutput.write(originNode.getPackedState());
+			}
+			histogram[layerCount++] = 1;
+			for (int depth = 0; depth < depthLimit; depth++)
+			{
+				long generatedBefore = statistics.nodesGenerated;
+				List<Path> runs = generateRuns(originNode, currentLayer, depth, options, statistics, temporaryFiles);
+				Path nextLayer = createTemporaryFile(temporaryFiles);
+				long layerSize = mergeLayer(runs, currentLayer, previousLayer, nextLayer, layerOutput, temporaryFiles);
+				deleteTemporaryFiles(runs, temporaryFiles);
+				if (previousLayer != null)
+				{
+					deleteTemporaryFiles(List.of(previousLayer), temporaryFiles);
+				}
+				statistics.duplicatesPruned += statistics.nodesGenerated - generatedBefore - layerSize;
+				statistics.updateFringeSize(layerSize);
+				statistics.updateClosedSetSize(histogram[layerCount - 1] + layerSize);
+				if (listener != null)
+				{
+					listener.layerCompleted(depth, histogram[layerCount - 1], statistics);
+				}
+				previousLayer = currentLayer;
+				currentLayer = nextLayer;
+				if (layerSize == 0)
+				{
+					break;
+				}
+				if (layerCount == histogram.length)
+				{
+					histogram = Arrays.copyOf(histogram, layerCount << 1);
+				}
+				histogram[layerCount++] = layerSize;
+			}
+			if (layerOutput != null)
+			{
+				layerOutput.writeTrailer(histogram, layerCount);
+			}
+		} finally
+		{
+			statistics.stop();
+			deleteTemporaryFiles(new ArrayList<>(temporaryFiles), temporaryFiles);
+		}
+		return Arrays.copyOf(histogram, layerCount);
+	}
+
+	private Path createTemporaryFile(List<Path> temporaryFiles) throws IOException
+	{
+		Path file = Files.createTempFile(directory, "bfs-", ".bin");
+		temporaryFiles.add(file);
+		return file;
+	}
+
+	private static void deleteTemporaryFiles(List<Path> files, List<Path> temporaryFiles) throws IOException
+	{
+		for (Path file : files)
+		{
+			Files.deleteIfExists(file);
+			temporaryFiles.remove(file);
+		}
+	}
+
+	/**
+	 * Expands every state of a layer and writes its children out as sorted runs of distinct states.
+	 */
+	private List<Path> generateRuns(AbstractSearchNode originNode, Path layer, int depth, SearchOptions options, SearchStatistics statistics, List<Path> temporaryFiles) throws IOException, SearchCancelledException
+	{
+		SearchListener listener = options.getListener();
+		List<Path> runs = new ArrayList<>();
+		long[] buffer = new long[bufferSize / 2 / Long.BYTES];
+		int count = 0;
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		Consumer<AbstractSearchNode> collectChild = newNodes::add;
+		try (LongReader reader = new LongReader(layer))
+		{
+			while (reader.hasNext())
+			{
+				options.checkCancelled();
+				AbstractSearchNode currentNode = originNode.createNodeFromPackedState(reader.next());
+				currentNode.setNodeDepth(depth);
+				newNodes.clear();
+				currentNode.forEachChildNode(collectChild);
+				statistics.recordExpansion(depth, newNodes.size());
+				if (listener != null)
+				{
+					listener.nodeExpanded(currentNode, statistics);
+				}
+				for (AbstractSearchNode node : newNodes)
+				{
+					if (count == buffer.length)
+					{
+						runs.add(writeRun(buffer, count, temporaryFiles));
+						count = 0;
+					}
+					buffer[count++] = node.getPackedState();
+				}
+			}
+		}
+		if (count > 0)
+		{
+			runs.add(writeRun(buffer, count, temporaryFiles));
+		}
+		return runs;
+	}
+
+	private Path writeRun(long[] buffer, int count, List<Path> temporaryFiles) throws IOException
+	{
+		Arrays.sort(buffer, 0, count);
+		Path run = createTemporaryFile(temporaryFiles);
+		try (LongWriter writer = new LongWriter(run))
+		{
+			for (int i = 0; i < count; i++)
+			{
+				if (i == 0 || buffer[i] != buffer[i - 1])
+				{
+					writer.write(buffer[i]);
+				}
+			}
+		}
+		return run;
+	}
+
+	/**
+	 * Merges the runs of the children of the current layer, removing duplicates and the states of the current and previous layers.
+	 * Runs are first merged in groups while there are more of them than the buffers can read at once.
+	 *
+	 * @return The number of states in the next layer.
+	 */
+	private long mergeLayer(List<Path> runs, Path currentLayer, Path previousLayer, Path nextLayer, LongWriter layerOutput, List<Path> temporaryFiles) throws IOException
+	{
+		int fanIn = Math.max(2, bufferSize / 2 / BLOCK_BYTES - 4);
+		while (runs.size() > fanIn)
+		{
+			List<Path> mergedRuns = new ArrayList<>();
+			for (int start = 0; start < runs.size(); start += fanIn)
+			{
+				List<Path> group = runs.subList(start, Math.min(start + fanIn, runs.size()));
+				Path mergedRun = createTemporaryFile(temporaryFiles);
+				try (MergedRuns merged = new MergedRuns(group); LongWriter writer = new LongWriter(mergedRun))
+				{
+					while (merged.hasNext())
+					{
+						writer.write(merged.next());
+					}
+				}
+				mergedRuns.add(mergedRun);
+			}
+			deleteTemporaryFiles(runs, temporaryFiles);
+			runs = mergedRuns;
+		}
+		long layerSize = 0;
+		try (MergedRuns merged = new MergedRuns(runs);
+			 LongReader current = new LongReader(currentLayer);
+			 LongReader previous = previousLayer == null ? null : new LongReader(previousLayer);
+			 LongWriter writer = new LongWriter(nextLayer))
+		{
+			while (merged.hasNext())
+			{
+				long state = merged.next();
+				if (!current.skipTo(state) && (previous == null || !previous.skipTo(state)))
+				{
+					writer.write(state);
+					if (layerOutput != null)
+					{
+						layerOutput.write(state);
+					}
+					layerSize++;
+				}
+			}
+		}
+		return layerSize;
+	}
+
+	/**
+	 * Reads the number of states at each depth from a file written by a search with {@link #setLayerFile(Path)}.
+	 *
+	 * @param layerFile The file.
+	 * @return The number of states at each depth.
+	 * @throws IOException If the file can not be read or is not a layer file.
+	 */
+	public static long[] readHistogram(Path layerFile) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(layerFile, StandardOpenOption.READ))
+		{
+			return readHistogram(channel, layerFile);
+		}
+	}
+
+	private static long[] readHistogram(FileChannel channel, Path layerFile) throws IOException
+	{
+		ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+		readFully(channel, trailer, channel.size() - TRAILER_BYTES);
+		int layerCount = trailer.getInt(0);
+		if (trailer.getInt(Integer.BYTES) != LAYER_FILE_VERSION || trailer.getInt(2 * Integer.BYTES) != LAYER_FILE_MAGIC)
+		{
+			throw new IOException(layerFile + " is not a layer file.");
+		}
+		ByteBuffer counts = ByteBuffer.allocate(layerCount * Long.BYTES);
+		readFully(channel, counts, channel.size() - TRAILER_BYTES - counts.capacity());
+		long[] histogram = new long[layerCount];
+		for (int depth = 0; depth < layerCount; depth++)
+		{
+			histogram[depth] = counts.getLong(depth * Long.BYTES);
+		}
+		return histogram;
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, position + buffer.position()) < 0)
+			{
+				throw new IOException("Unexpected end of file.");
+			}
+		}
+	}
+
+	/**
+	 * Passes every state at a depth, in ascending order, from a file written by a search with {@link #setLayerFile(Path)}.
+	 *
+	 * @param layerFile The file.
+	 * @param depth     The depth of the states.
+	 * @param consumer  Receives each packed state.
+	 * @throws IOException If the file can not be read or is not a layer file.
+	 */
+	public static void forEachState(Path layerFile, int depth, LongConsumer consumer) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(layerFile, StandardOpenOption.READ))
+		{
+			long[] histogram = readHistogram(channel, layerFile);
+			if (depth < 0 || depth >= histogram.length)
+			{
+				throw new IllegalArgumentException(String.format("A depth of %d is not in the file. Expected 0 to %d.", depth, histogram.length - 1));
+			}
+			long offset = 0;
+			for (int i = 0; i < depth; i++)
+			{
+				offset += histogram[i];
+			}
+			channel.position(offset * Long.BYTES);
+			LongReader reader = new LongReader(channel);
+			for (long i = 0; i < histogram[depth]; i++)
+			{
+				consumer.accept(reader.next());
+			}
+		}
+	}
+
+	/**
+	 * Reads longs from a file in order through a block buffer.
+	 */
+	private static final class LongReader implements Closeable
+	{
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES);
+
+		LongReader(Path file) throws IOException
+		{
+			this(FileChannel.open(file, StandardOpenOption.READ));
+		}
+
+		LongReader(FileChannel channel)
+		{
+			this.channel = channel;
+			buffer.flip();
+		}
+
+		boolean hasNext() throws IOException
+		{
+			if (buffer.hasRemaining())
+			{
+				return true;
+			}
+			buffer.clear();
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+			{
+				// a file channel only reads less than asked for at the end of the file
+			}
+			buffer.flip();
+			// drop any part of a long left at the end, which can only be the trailer of a layer file
+			buffer.limit(buffer.limit() - buffer.limit() % Long.BYTES);
+			return buffer.hasRemaining();
+		}
+
+		long peek()
+		{
+			return buffer.getLong(buffer.position());
+		}
+
+		long next() throws IOException
+		{
+			if (!hasNext())
+			{
+				throw new IOException("Unexpected end of file.");
+			}
+			return buffer.getLong();
+		}
+
+		/**
+		 * Skips every value lower than the one given.
+		 *
+		 * @return True if the next value is equal to the one given.
+		 */
+		boolean skipTo(long value) throws IOException
+		{
+			while (hasNext() && peek() < value)
+			{
+				buffer.getLong();
+			}
+			return hasNext() && peek() == value;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes longs to a file in order through a block buffer, and can end the file with the trailer of a layer file.
+	 */
+	private static final class LongWriter implements Closeable
+	{
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK_BYTES);
+
+		LongWriter(Path file) throws IOException
+		{
+			channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		}
+
+		void write(long value) throws IOException
+		{
+			if (!buffer.hasRemaining())
+			{
+				flush();
+			}
+			buffer.putLong(value);
+		}
+
+		void writeTrailer(long[] histogram, int layerCount) throws IOException
+		{
+			for (int depth = 0; depth < layerCount; depth++)
+			{
+				write(histogram[depth]);
+			}
+			flush();
+			ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+			trailer.putInt(layerCount).putInt(LAYER_FILE_VERSION).putInt(LAYER_FILE_MAGIC).flip();
+			while (trailer.hasRemaining())
+			{
+				channel.write(trailer);
+			}
+		}
+
+		private void flush() throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				flush();
+			} finally
+			{
+				channel.close();
+			}
+		}
+	}
+
+	/**
+	 * Merges sorted runs into a single sorted stream without duplicates, using a binary heap of the readers ordered by their next value.
+	 */
+	private static final class MergedRuns implements Closeable
+	{
+		private final LongReader[] readers;
+		private final int[] heap;
+		private int heapSize;
+		private boolean hasLast;
+		private long last;
+
+		MergedRuns(List<Path> runs) throws IOException
+		{
+			readers = new LongReader[runs.size()];
+			heap = new int[runs.size()];
+			try
+			{
+				for (int i = 0; i < readers.length; i++)
+				{
+					readers[i] = new LongReader(runs.get(i));
+					if (readers[i].hasNext())
+					{
+						heap[heapSize] = i;
+						siftUp(heapSize++);
+					}
+				}
+			} catch (IOException e)
+			{
+				close();
+				throw e;
+			}
+			skipDuplicates();
+		}
+
+		boolean hasNext()
+		{
+			return heapSize > 0;
+		}
+
+		long next() throws IOException
+		{
+			last = pop();
+			hasLast = true;
+			skipDuplicates();
+			return last;
+		}
+
+		private void skipDuplicates() throws IOException
+		{
+			while (hasLast && heapSize > 0 && readers[heap[0]].peek() == last)
+			{
+				pop();
+			}
+		}
+
+		private long pop() throws IOException
+		{
+			LongReader reader = readers[heap[0]];
+			long value = reader.next();
+			if (!reader.hasNext())
+			{
+				heap[0] = heap[--heapSize];
+			}
+			siftDown(0);
+			return value;
+		}
+
+		private void siftUp(int index)
+		{
+			int reader = heap[index];
+			while (index > 0)
+			{
+				int parent = (index - 1) >>> 1;
+				if (readers[heap[parent]].peek() <= readers[reader].peek())
+				{
+					break;
+				}
+				heap[index] = heap[parent];
+				index = parent;
+			}
+			heap[index] = reader;
+		}
+
+		private void siftDown(int index)
+		{
+			if (heapSize == 0)
+			{
+				return;
+			}
+			int reader = heap[index];
+			long value = readers[reader].peek();
+			while (true)
+			{
+				int child = (index << 1) + 1;
+				if (child >= heapSize)
+				{
+					break;
+				}
+				if (child + 1 < heapSize && readers[heap[child + 1]].peek() < readers[heap[child]].peek())
+				{
+					child++;
+				}
+				if (value <= readers[heap[child]].peek())
+				{
+					break;
+				}
+				heap[index] = heap[child];
+				index = child;
+			}
+			heap[index] = reader;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			for (LongReader reader : readers)
+			{
+				if (reader != null)
+				{
+					reader.close();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Breadth first frontier search, which keeps no closed list.
+ * Only the layer being expanded and the layer being generated are held. Every node records which of its moves lead to neighbours
+ * that have already been reached, so it never generates them again: when a child is generated, or found again, the inverse of the move
+ * that reached it is marked as used. Since every move has an inverse, a node's neighbours in earlier layers are always marked
+ * and the search can never step back into the space it has left.
+ * <p>
+ * Breadth first heuristic search additionally drops every node whose depth plus heuristic value exceeds an upper bound on the solution cost.
+ * Without a given bound the bound starts at the heuristic value of the origin and is raised to the lowest pruned value after each failed pass.
+ * <p>
+ * As nodes do not keep their parents, each node in the layers past the middle of the search carries a relay, the node it descends from
+ * in the middle layer. Once a goal is found the path is rebuilt by dividing it at the relay and searching each half again the same way,
+ * so memory stays proportional to the widest layer rather than to the whole space explored.
+ */
+class FrontierSearch
+{
+	private static final int MAX_MOVE_COUNT = 32;
+
+	private final boolean useHeuristic;
+	private final SearchOptions options;
+	private final SearchStatistics statistics;
+	private final SearchListener listener;
+	private final int moveCount;
+	private int lowestPrunedCost;
+
+	private FrontierSearch(AbstractSearchNode originNode, boolean useHeuristic, SearchOptions options, SearchStatistics statistics)
+	{
+		this.useHeuristic = useHeuristic;
+		this.options = options;
+		this.statistics = statistics;
+		this.listener = options.getListener();
+		this.moveCount = originNode.getMoveCount();
+	}
+
+	/**
+	 * @param originNode The root node, which must support in place moves with at most 32 moves that all have inverses.
+	 * @return True if frontier search can be used on the node.
+	 */
+	static boolean supports(AbstractSearchNode originNode)
+	{
+		return originNode.supportsInPlaceMoves() && originNode.getMoveCount() <= MAX_MOVE_COUNT;
+	}
+
+	/**
+	 * Runs breadth first frontier search.
+	 *
+	 * @param originNode The root node of the search, which must not be in the goal state.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param options    The settings of the search.
+	 * @param statistics The statistics filled in by the search.
+	 * @return The shallowest goal node, with a chain of parent nodes back to the origin node.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit or the search is cancelled.
+	 */
+	static AbstractSearchNode breadthFirstSearch(AbstractSearchNode originNode, int depthLimit, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		FrontierSearch search = new FrontierSearch(originNode, false, options, statistics);
+		Relay found = search.searchLayers(originNode, AbstractSearchNode::inGoalState, 0, Integer.MAX_VALUE, -1, depthLimit);
+		if (found == null)
+		{
+			throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+		}
+		return search.rebuildPath(originNode, found, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Runs breadth first heuristic search, raising the upper bound after each pass that finds no goal if no bound is given.
+	 *
+	 * @param originNode The root node of the search, which must not be in the goal state.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param upperBound The largest solution cost searched for, or -1 to find the lowest cost by raising the bound.
+	 * @param options    The settings of the search.
+	 * @param statistics The statistics filled in by the search.
+	 * @return The goal node with the lowest path cost, with a chain of parent nodes back to the origin node.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the bound and the depth limit or the search is cancelled.
+	 */
+	static AbstractSearchNode breadthFirstHeuristicSearch(AbstractSearchNode originNode, int depthLimit, int upperBound, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		FrontierSearch search = new FrontierSearch(originNode, true, options, statistics);
+		int bound = upperBound >= 0 ? Math.min(upperBound, depthLimit) : Math.min(originNode.getHeuristicValue(), depthLimit);
+		while (true)
+		{
+			search.lowestPrunedCost = Integer.MAX_VALUE;
+			Relay found = search.searchLayers(originNode, AbstractSearchNode::inGoalState, 0, bound, bound / 2, bound);
+			if (found != null)
+			{
+				return search.rebuildPath(originNode, found, found.node.getNodeDepth());
+			}
+			if (upperBound >= 0 || search.lowestPrunedCost > depthLimit)
+			{
+				throw new GoalNodeNotFoundException("No solution found up to a depth of: " + Math.min(depthLimit, bound));
+			}
+			bound = search.lowestPrunedCost;
+		}
+	}
+
+	/**
+	 * Recreates the path of a found goal node from its relay, then creates the nodes on it again starting from the origin node.
+	 */
+	private AbstractSearchNode rebuildPath(AbstractSearchNode originNode, Relay found, int upperBound) throws GoalNodeNotFoundException
+	{
+		int length = found.node.getNodeDepth();
+		byte[] moves = new byte[length];
+		AbstractSearchNode start = originNode.copyNode();
+		if (found.relay != null)
+		{
+			int relayDepth = found.relay.getNodeDepth();
+			findMoves(start, found.relay, relayDepth, 0, upperBound, moves, 0);
+			findMoves(found.relay.copyNode(), found.node, length - relayDepth, relayDepth, upperBound, moves, relayDepth);
+		} else
+		{
+			findMoves(start, found.node, length, 0, upperBound, moves, 0);
+		}
+		return new SearchSolution(found.node, moves).replay(originNode);
+	}
+
+	/**
+	 * Finds the moves of a shortest path between two states by searching for the target with a relay in the middle layer
+	 * and then finding the moves of each half the same way.
+	 *
+	 * @param start      A root node holding the state the path starts at.
+	 * @param target     A node holding the state the path ends at.
+	 * @param length     The number of moves on the path.
+	 * @param costOffset The depth of the start on the whole path, added to depths before they are compared with the bound.
+	 * @param upperBound The cost of the whole path, used to prune nodes that can not lie on it.
+	 * @param moves      The moves of the whole path, filled in from the offset.
+	 * @param offset     The position of the first move of this part of the path.
+	 */
+	private void findMoves(AbstractSearchNode start, AbstractSearchNode target, int length, int costOffset, int upperBound, byte[] moves, int offset) throws GoalNodeNotFoundException
+	{
+		if (length == 0)
+		{
+			return;
+		}
+		if (length == 1)
+		{
+			for (int move = 0; move < moveCount; move++)
+			{
+				AbstractSearchNode child = start.createChildNode(move);
+				if (child != null && child.equalsNode(target))
+				{
+					moves[offset] = (byte) move;
+					return;
+				}
+			}
+			throw new IllegalStateException("The relay is not next to the node it was recorded for.");
+		}
+		int middle = length / 2;
+		Relay found = searchLayers(start, node -> node.equalsNode(target), costOffset, upperBound, middle, length);
+		if (found == null || found.relay == null)
+		{
+			throw new IllegalStateException("The path through a relay could not be found again.");
+		}
+		findMoves(start, found.relay, middle, costOffset, upperBound, moves, offset);
+		findMoves(found.relay.copyNode(), target, length - middle, costOffset + middle, upperBound, moves, offset + middle);
+	}
+
+	/**
+	 * Expands layer after layer from the start until a node the predicate accepts is generated.
+	 *
+	 * @param start      The node the search starts from, which is copied.
+	 * @param isTarget   Accepts the nodes searched for.
+	 * @param costOffset The cost of reaching the start, added to the depth of nodes before they are compared with the bound.
+	 * @param upperBound The largest depth plus heuristic value a node kept may have, when the heuristic is used.
+	 * @param relayLayer The depth of the layer whose nodes are recorded as relays, or -1 for none.
+	 * @param depthLimit The depth of the deepest node that will be checked.
+	 * @return The node found with its relay, or null if the search ran out of nodes.
+	 */
+	private Relay searchLayers(AbstractSearchNode start, Predicate<AbstractSearchNode> isTarget, int costOffset, int upperBound, int relayLayer, int depthLimit) throws SearchCancelledException
+	{
+		ArrayList<FrontierEntry> currentLayer = new ArrayList<>();
+		NodeHashMap<FrontierEntry> currentStates = new NodeHashMap<>();
+		ArrayList<FrontierEntry> nextLayer = new ArrayList<>();
+		NodeHashMap<FrontierEntry> nextStates = new NodeHashMap<>();
+		FrontierEntry startEntry = new FrontierEntry(start.copyNode(), 0, null);
+		currentLayer.add(startEntry);
+		currentStates.put(startEntry.node, startEntry);
+		for (int depth = 0; depth < depthLimit && !currentLayer.isEmpty(); depth++)
+		{
+			for (FrontierEntry entry : currentLayer)
+			{
+				options.checkCancelled();
+				int childCount = 0;
+				for (int move = 0; move < moveCount; move++)
+				{
+					if ((entry.usedMoves & (1 << move)) != 0)
+					{
+						continue;
+					}
+					AbstractSearchNode child = entry.node.createChildNode(move);
+					if (child == null)
+					{
+						continue;
+					}
+					child.detachParentNode();
+					childCount++;
+					AbstractSearchNode relay = depth + 1 == relayLayer ? child : entry.relay;
+					if (isTarget.test(child))
+					{
+						statistics.recordExpansion(depth, childCount);
+						return new Relay(child, relay);
+					}
+					if (useHeuristic)
+					{
+						int cost = costOffset + depth + 1 + child.getHeuristicValue();
+						if (cost > upperBound)
+						{
+							lowestPrunedCost = Math.min(lowestPrunedCost, cost);
+							continue;
+						}
+					}
+					int usedMove = 1 << child.getInverseMove(move);
+					FrontierEntry reached = currentStates.get(child);
+					if (reached == null)
+					{
+						reached = nextStates.get(child);
+					}
+					if (reached != null)
+					{
+						reached.usedMoves |= usedMove;
+						statistics.duplicatesPruned++;
+						continue;
+					}
+					FrontierEntry childEntry = new FrontierEntry(child, usedMove, relay);
+					nextLayer.add(childEntry);
+					nextStates.put(child, childEntry);
+				}
+				statistics.recordExpansion(depth, childCount);
+				if (listener != null)
+				{
+					listener.nodeExpanded(entry.node, statistics);
+				}
+			}
+			if (listener != null)
+			{
+				listener.layerCompleted(depth, currentLayer.size(), statistics);
+			}
+			statistics.updateFringeSize(nextLayer.size());
+			statistics.updateClosedSetSize(currentLayer.size() + nextLayer.size());
+			ArrayList<FrontierEntry> expandedLayer = currentLayer;
+			currentLayer = nextLayer;
+			nextLayer = expandedLayer;
+			nextLayer.clear();
+			NodeHashMap<FrontierEntry> expandedStates = currentStates;
+			currentStates = nextStates;
+			nextStates = expandedStates;
+			nextStates.clear();
+		}
+		if (!currentLayer.isEmpty())
+		{
+			// the nodes left at the depth limit were kept by the bound but not expanded, so their children cost at least one more than the limit
+			lowestPrunedCost = Math.min(lowestPrunedCost, costOffset + depthLimit + 1);
+		}
+		return null;
+	}
+
+	/**
+	 * A node of a layer with the moves from it that lead back into states already reached.
+	 */
+	private static final class FrontierEntry
+	{
+		final AbstractSearchNode node;
+		final AbstractSearchNode relay;
+		int usedMoves;
+
+		FrontierEntry(AbstractSearchNode node, int usedMoves, AbstractSearchNode relay)
+		{
+			this.node = node;
+			this.usedMoves = usedMoves;
+			this.relay = relay;
+		}
+	}
+
+	private record Relay(AbstractSearchNode node, AbstractSearchNode relay)
+	{
+	}
+}
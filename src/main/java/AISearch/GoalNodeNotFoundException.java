@@ -2,6 +2,8 @@ package AISearch;
 
 public class GoalNodeNotFoundException extends Exception
 {
+	private SearchStatistics statistics;
+
 	public GoalNodeNotFoundException()
 	{
 		super("There was no goal node found.");
@@ -11,4 +13,17 @@ public class GoalNodeNotFoundException extends Exception
 	{
 		super(message);
 	}
+
+	/**
+	 * @return The statistics of the search that failed, or null if the exception was not thrown by a search.
+	 */
+	public SearchStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	void setStatistics(SearchStatistics statistics)
+	{
+		this.statistics = statistics;
+	}
 }
@@ -0,0 +1,165 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Iterative deepening A* search.
+ * Repeated depth first searches are bounded by an increasing f value, so memory is only needed in proportion to the depth of the solution.
+ * Nodes that support in place moves are searched on a single mutable copy of the origin node; other nodes fall back to generating child nodes.
+ */
+class IterativeDeepeningSearch
+{
+	private static final int FOUND = -1;
+	private static final int EXHAUSTED = Integer.MAX_VALUE;
+
+	private final int depthLimit;
+	private final SearchOptions options;
+	private final SearchStatistics statistics;
+	private final SearchListener listener;
+	private int[] moves = new int[64];
+	private AbstractSearchNode goalNode;
+
+	private IterativeDeepeningSearch(int depthLimit, SearchOptions options, SearchStatistics statistics)
+	{
+		this.depthLimit = depthLimit;
+		this.options = options;
+		this.statistics = statistics;
+		this.listener = options.getListener();
+	}
+
+	/**
+	 * @param originNode The root node of the search, it is not changed.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param options    The settings of the search.
+	 * @param statistics The statistics filled in by the search.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit or the search is cancelled.
+	 */
+	static AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		IterativeDeepeningSearch search = new IterativeDeepeningSearch(depthLimit, options, statistics);
+		boolean inPlace = originNode.supportsInPlaceMoves();
+		AbstractSearchNode workingNode = inPlace ? originNode.copyNode() : originNode;
+		int bound = originNode.getHeuristicValue();
+		while (true)
+		{
+			long expandedBefore = statistics.nodesExpanded;
+			int result = inPlace ? search.searchInPlace(workingNode, 0, bound, -1) : search.searchChildren(originNode, bound);
+			if (result == FOUND)
+			{
+				return inPlace ? search.rebuildPath(originNode) : search.goalNode;
+			}
+			if (result == EXHAUSTED)
+			{
+				throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+			}
+			if (search.listener != null)
+			{
+				search.listener.layerCompleted(bound, statistics.nodesExpanded - expandedBefore, statistics);
+			}
+			bound = result;
+		}
+	}
+
+	private int searchInPlace(AbstractSearchNode node, int depth, int bound, int previousMove) throws SearchCancelledException
+	{
+		int fValue = depth + node.getHeuristicValue();
+		if (fValue > bound)
+		{
+			return fValue;
+		}
+		if (node.inGoalState())
+		{
+			moves = Arrays.copyOf(moves, depth);
+			return FOUND;
+		}
+		if (depth >= depthLimit)
+		{
+			return EXHAUSTED;
+		}
+		options.checkCancelled();
+		if (depth == moves.length)
+		{
+			moves = Arrays.copyOf(moves, depth << 1);
+		}
+		statistics.recordExpansion(depth, 0);
+		statistics.updateFringeSize(depth + 1);
+		if (listener != null)
+		{
+			listener.nodeExpanded(node, statistics);
+		}
+		int reverseMove = previousMove < 0 ? -1 : node.getInverseMove(previousMove);
+		int nextBound = EXHAUSTED;
+		for (int move = 0; move < node.getMoveCount(); move++)
+		{
+			if (move == reverseMove)
+			{
+				statistics.duplicatesPruned++;
+				continue;
+			}
+			if (!node.applyMove(move))
+			{
+				continue;
+			}
+			statistics.recordGenerated(depth + 1);
+			moves[depth] = move;
+			int result = searchInPlace(node, depth + 1, bound, move);
+			node.undoMove(move);
+			if (result == FOUND)
+			{
+				return FOUND;
+			}
+			nextBound = Math.min(nextBound, result);
+		}
+		return nextBound;
+	}
+
+	private int searchChildren(AbstractSearchNode node, int bound) throws SearchCancelledException
+	{
+		int fValue = node.getNodeDepth() + node.getHeuristicValue();
+		if (fValue > bound)
+		{
+			return fValue;
+		}
+		if (node.inGoalState())
+		{
+			goalNode = node;
+			return FOUND;
+		}
+		if (node.getNodeDepth() >= depthLimit)
+		{
+			return EXHAUSTED;
+		}
+		options.checkCancelled();
+		int nextBound = EXHAUSTED;
+		ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		node.forEachChildNode(newNodes::add);
+		statistics.recordExpansion(node.getNodeDepth(), newNodes.size());
+		statistics.updateFringeSize(node.getNodeDepth() + 1);
+		if (listener != null)
+		{
+			listener.nodeExpanded(node, statistics);
+		}
+		for (AbstractSearchNode child : newNodes)
+		{
+			int result = searchChildren(child, bound);
+			if (result == FOUND)
+			{
+				return FOUND;
+			}
+			nextBound = Math.min(nextBound, result);
+		}
+		return nextBound;
+	}
+
+	private AbstractSearchNode rebuildPath(AbstractSearchNode originNode)
+	{
+		AbstractSearchNode node = originNode;
+		for (int move : moves)
+		{
+			node = node.createChildNode(move);
+		}
+		return node;
+	}
+}
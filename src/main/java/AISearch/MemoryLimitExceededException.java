@@ -0,0 +1,17 @@
+package AISearch;
+
+/**
+ * Thrown when a search stops because the memory it was allowed to use for its closed set has run out.
+ */
+public class MemoryLimitExceededException extends GoalNodeNotFoundException
+{
+	public MemoryLimitExceededException()
+	{
+		super("The search ran out of memory.");
+	}
+
+	public MemoryLimitExceededException(String message)
+	{
+		super(message);
+	}
+}
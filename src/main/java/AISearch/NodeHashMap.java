@@ -0,0 +1,246 @@
+package AISearch;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * An open addressing hash map keyed by the state of search nodes.
+ * Keys are hashed with {@link AbstractSearchNode#stateHash()} and compared with {@link AbstractSearchNode#equalsNode(AbstractSearchNode)},
+ * so two different node objects that represent the same state map to the same entry.
+ * Lookups do not allocate.
+ *
+ * @param <V> The type of value stored against each state.
+ */
+public class NodeHashMap<V>
+{
+	private static final int DEFAULT_CAPACITY = 64;
+
+	private AbstractSearchNode[] keys;
+	private Object[] values;
+	private int[] hashes;
+	private int size;
+	private int mask;
+	private int resizeThreshold;
+
+	public NodeHashMap()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new map that can hold the given number of states before it has to resize.
+	 *
+	 * @param expectedSize The number of states the map is expected to hold.
+	 */
+	public NodeHashMap(int expectedSize)
+	{
+		int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, DEFAULT_CAPACITY - 1)) << 1;
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity)
+	{
+		keys = new AbstractSearchNode[capacity];
+		values = new Object[capacity];
+		hashes = new int[capacity];
+		mask = capacity - 1;
+		resizeThreshold = capacity - (capacity >>> 2);
+	}
+
+	private static int spread(int hash)
+	{
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	private int indexOf(AbstractSearchNode node, int hash)
+	{
+		int index = hash & mask;
+		AbstractSearchNode key;
+		while ((key = keys[index]) != null)
+		{
+			if (hashes[index] == hash && (key == node || node.equalsNode(key)))
+			{
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return ~index;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * @param node A node with the state to look for.
+	 * @return True if a node with an equal state is stored in the map.
+	 */
+	public boolean containsKey(AbstractSearchNode node)
+	{
+		return indexOf(node, spread(node.stateHash())) >= 0;
+	}
+
+	/**
+	 * @param node A node with the state to look for.
+	 * @return The value stored against the state of the node or null if the state is not in the map.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(AbstractSearchNode node)
+	{
+		int index = indexOf(node, spread(node.stateHash()));
+		return index >= 0 ? (V) values[index] : null;
+	}
+
+	/**
+	 * @param node A node with the state to look for.
+	 * @return The node object that was used as the key for the state of the given node or null if the state is not in the map.
+	 */
+	public AbstractSearchNode getKey(AbstractSearchNode node)
+	{
+		int index = indexOf(node, spread(node.stateHash()));
+		return index >= 0 ? keys[index] : null;
+	}
+
+	/**
+	 * Stores a value against the state of the node.
+	 * If the state is already present both the stored key and the value are replaced.
+	 *
+	 * @param node  The node whose state is the key.
+	 * @param value The value to store.
+	 * @return The previous value stored against the state or null if there was none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(AbstractSearchNode node, V value)
+	{
+		int hash = spread(node.stateHash());
+		int index = indexOf(node, hash);
+		if (index >= 0)
+		{
+			V previous = (V) values[index];
+			keys[index] = node;
+			values[index] = value;
+			return previous;
+		}
+		insertAt(~index, node, value, hash);
+		return null;
+	}
+
+	/**
+	 * Stores a value against the state of the node only if the state is not already present.
+	 *
+	 * @param node  The node whose state is the key.
+	 * @param value The value to store.
+	 * @return True if the state was added, false if it was already present.
+	 */
+	public boolean putIfAbsent(AbstractSearchNode node, V value)
+	{
+		int hash = spread(node.stateHash());
+		int index = indexOf(node, hash);
+		if (index >= 0)
+		{
+			return false;
+		}
+		insertAt(~index, node, value, hash);
+		return true;
+	}
+
+	private void insertAt(int index, AbstractSearchNode node, V value, int hash)
+	{
+		keys[index] = node;
+		values[index] = value;
+		hashes[index] = hash;
+		if (++size > resizeThreshold)
+		{
+			resize();
+		}
+	}
+
+	/**
+	 * Removes the state of the node from the map.
+	 *
+	 * @param node A node with the state to remove.
+	 * @return The value that was stored against the state or null if the state was not in the map.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(AbstractSearchNode node)
+	{
+		int index = indexOf(node, spread(node.stateHash()));
+		if (index < 0)
+		{
+			return null;
+		}
+		V previous = (V) values[index];
+		// shift the following entries of the probe sequence back so that no lookup stops at the gap
+		int gap = index;
+		int next = (gap + 1) & mask;
+		while (keys[next] != null)
+		{
+			int home = hashes[next] & mask;
+			if (((next - home) & mask) >= ((next - gap) & mask))
+			{
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				hashes[gap] = hashes[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[gap] = null;
+		values[gap] = null;
+		size--;
+		return previous;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		size = 0;
+	}
+
+	/**
+	 * Passes every value in the map to the consumer, in no particular order.
+	 *
+	 * @param consumer The consumer of the values.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachValue(Consumer<? super V> consumer)
+	{
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (keys[i] != null)
+			{
+				consumer.accept((V) values[i]);
+			}
+		}
+	}
+
+	private void resize()
+	{
+		AbstractSearchNode[] oldKeys = keys;
+		Object[] oldValues = values;
+		int[] oldHashes = hashes;
+		allocate(oldKeys.length << 1);
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldKeys[i] != null)
+			{
+				int index = oldHashes[i] & mask;
+				while (keys[index] != null)
+				{
+					index = (index + 1) & mask;
+				}
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+				hashes[index] = oldHashes[i];
+			}
+		}
+	}
+}
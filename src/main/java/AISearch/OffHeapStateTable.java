@@ -0,0 +1,357 @@
+package AISearch;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * An open addressing hash table of packed states held outside the Java heap, so that a closed set of hundreds of millions of states
+ * adds nothing for the garbage collector to trace. Every entry is a 64 bit state from {@link AbstractSearchNode#getPackedState()}
+ * and a 32 bit payload holding the depth the state was reached at and the move that reached it.
+ * <p>
+ * Entries are stored in direct byte buffers of at most 2<sup>24</sup> entries each, so the table is not limited by the size of a single buffer.
+ * The table doubles when it is three quarters full and refuses to grow past its memory limit. While it grows the old entries are held as well,
+ * so the limit must cover both the old and the new table, half as much again as the new table alone.
+ * The zero state is kept apart from the table since a zero key marks an empty slot.
+ * <p>
+ * Closing the table frees its buffers straight away when the runtime allows it, instead of leaving them for the garbage collector.
+ */
+public class OffHeapStateTable implements AutoCloseable
+{
+	/**
+	 * The payload returned for a state that is not in the table.
+	 */
+	public static final int ABSENT = -1;
+	/**
+	 * The largest depth that can be stored.
+	 */
+	public static final int MAX_DEPTH = (1 << 23) - 1;
+
+	private static final int ENTRY_BYTES = 12;
+	private static final int SEGMENT_SHIFT = 24;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+	private static final int MIN_CAPACITY_BITS = 10;
+	private static final int NO_MOVE = 0xFF;
+	private static final MethodHandle INVOKE_CLEANER = findCleaner();
+
+	private final long memoryLimit;
+	private ByteBuffer[] segments;
+	private int capacityBits;
+	private long capacity;
+	private long resizeThreshold;
+	private long size;
+	private int zeroStatePayload = ABSENT;
+
+	/**
+	 * @param memoryLimit The largest number of bytes the entries may take up.
+	 * @throws IllegalArgumentException If the memory limit is too small to hold the smallest table.
+	 */
+	public OffHeapStateTable(long memoryLimit) throws IllegalArgumentException
+	{
+		this(0, memoryLimit);
+	}
+
+	/**
+	 * @param expectedSize The number of states the table is expected to hold, so that it does not have to resize while they are added.
+	 * @param memoryLimit  The largest number of bytes the entries may take up.
+	 * @throws IllegalArgumentException If the memory limit is too small to hold the expected number of states.
+	 */
+	public OffHeapStateTable(long expectedSize, long memoryLimit) throws IllegalArgumentException
+	{
+		this.memoryLimit = memoryLimit;
+		int bits = MIN_CAPACITY_BITS;
+		while ((1L << bits) - (1L << (bits - 2)) < expectedSize)
+		{
+			bits++;
+		}
+		if (bytesFor(bits) > memoryLimit)
+		{
+			throw new IllegalArgumentException(String.format("A memory limit of %d bytes is too low. Expected at least %d.", memoryLimit, bytesFor(bits)));
+		}
+		allocate(bits);
+	}
+
+	/**
+	 * Finds the method that frees the memory of a direct buffer without waiting for the garbage collector, if the runtime has one.
+	 */
+	private static MethodHandle findCleaner()
+	{
+		try
+		{
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+			unsafeField.setAccessible(true);
+			return MethodHandles.lookup()
+					.findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+					.bindTo(unsafeField.get(null));
+		} catch (ReflectiveOperationException | RuntimeException e)
+		{
+			return null;
+		}
+	}
+
+	private static void free(ByteBuffer[] buffers)
+	{
+		if (INVOKE_CLEANER == null)
+		{
+			return;
+		}
+		for (ByteBuffer buffer : buffers)
+		{
+			try
+			{
+				INVOKE_CLEANER.invokeExact(buffer);
+			} catch (Throwable e)
+			{
+				// the buffer is left for the garbage collector
+			}
+		}
+	}
+
+	private static long bytesFor(int bits)
+	{
+		return (1L << bits) * ENTRY_BYTES;
+	}
+
+	private void allocate(int bits)
+	{
+		capacityBits = bits;
+		capacity = 1L << bits;
+		resizeThreshold = capacity - (capacity >>> 2);
+		long segmentEntries = Math.min(capacity, 1L << SEGMENT_SHIFT);
+		segments = new ByteBuffer[(int) (capacity / segmentEntries)];
+		for (int i = 0; i < segments.length; i++)
+		{
+			segments[i] = ByteBuffer.allocateDirect((int) (segmentEntries * ENTRY_BYTES)).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	private static int pack(int depth, int parentMove)
+	{
+		if (depth < 0 || depth > MAX_DEPTH)
+		{
+			throw new IllegalArgumentException(String.format("A depth of %d can not be stored. Expected 0 to %d.", depth, MAX_DEPTH));
+		}
+		return depth << 8 | (parentMove < 0 ? NO_MOVE : parentMove & 0xFF);
+	}
+
+	/**
+	 * @param payload A payload returned by {@link #get(long)}.
+	 * @return The depth stored in the payload.
+	 */
+	public static int depthOf(int payload)
+	{
+		return payload >>> 8;
+	}
+
+	/**
+	 * @param payload A payload returned by {@link #get(long)}.
+	 * @return The move stored in the payload, or -1 if none was stored.
+	 */
+	public static int parentMoveOf(int payload)
+	{
+		int move = payload & 0xFF;
+		return move == NO_MOVE ? -1 : move;
+	}
+
+	private long keyAt(long index)
+	{
+		return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) * ENTRY_BYTES);
+	}
+
+	private int payloadAt(long index)
+	{
+		return segments[(int) (index >>> SEGMENT_SHIFT)].getInt((int) (index & SEGMENT_MASK) * ENTRY_BYTES + 8);
+	}
+
+	private void write(long index, long state, int payload)
+	{
+		ByteBuffer segment = segments[(int) (index >>> SEGMENT_SHIFT)];
+		int offset = (int) (index & SEGMENT_MASK) * ENTRY_BYTES;
+		segment.putLong(offset, state);
+		segment.putInt(offset + 8, payload);
+	}
+
+	/**
+	 * Finds the slot holding a state, or the empty slot where it would be added.
+	 */
+	private long indexOf(long state)
+	{
+		long mask = capacity - 1;
+		long index = (state * 0x9E3779B97F4A7C15L) >>> (64 - capacityBits);
+		long key;
+		while ((key = keyAt(index)) != 0 && key != state)
+		{
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	/**
+	 * @param state A packed state.
+	 * @return The payload stored for the state, or {@link #ABSENT} if the state is not in the table.
+	 */
+	public int get(long state)
+	{
+		if (state == 0)
+		{
+			return zeroStatePayload;
+		}
+		long index = indexOf(state);
+		return keyAt(index) == 0 ? ABSENT : payloadAt(index);
+	}
+
+	public boolean contains(long state)
+	{
+		return get(state) != ABSENT;
+	}
+
+	/**
+	 * Adds a state if it is not already in the table.
+	 *
+	 * @param state      A packed state.
+	 * @param depth      The depth the state was reached at.
+	 * @param parentMove The move that reached the state, or -1 if there is none. Only the lowest 8 bits are kept.
+	 * @return True if the state was added, false if it was already in the table.
+	 * @throws MemoryLimitExceededException If the table needs to grow past its memory limit to add the state.
+	 */
+	public boolean putIfAbsent(long state, int depth, int parentMove) throws MemoryLimitExceededException
+	{
+		if (state == 0)
+		{
+			if (zeroStatePayload != ABSENT)
+			{
+				return false;
+			}
+			zeroStatePayload = pack(depth, parentMove);
+			size++;
+			return true;
+		}
+		long index = indexOf(state);
+		if (keyAt(index) != 0)
+		{
+			return false;
+		}
+		insert(index, state, pack(depth, parentMove));
+		return true;
+	}
+
+	/**
+	 * Adds a state or replaces the payload stored for it.
+	 *
+	 * @param state      A packed state.
+	 * @param depth      The depth the state was reached at.
+	 * @param parentMove The move that reached the state, or -1 if there is none. Only the lowest 8 bits are kept.
+	 * @throws MemoryLimitExceededException If the table needs to grow past its memory limit to add the state.
+	 */
+	public void put(long state, int depth, int parentMove) throws MemoryLimitExceededException
+	{
+		if (state == 0)
+		{
+			if (zeroStatePayload == ABSENT)
+			{
+				size++;
+			}
+			zeroStatePayload = pack(depth, parentMove);
+			return;
+		}
+		long index = indexOf(state);
+		if (keyAt(index) != 0)
+		{
+			write(index, state, pack(depth, parentMove));
+			return;
+		}
+		insert(index, state, pack(depth, parentMove));
+	}
+
+	private void insert(long index, long state, int payload) throws MemoryLimitExceededException
+	{
+		if (size >= resizeThreshold)
+		{
+			resize();
+			index = indexOf(state);
+		}
+		write(index, state, payload);
+		size++;
+	}
+
+	private void resize() throws MemoryLimitExceededException
+	{
+		// the old segments are held until every entry has been moved, so both tables count against the limit
+		long peakBytes = bytesFor(capacityBits) + bytesFor(capacityBits + 1);
+		if (peakBytes > memoryLimit)
+		{
+			throw new MemoryLimitExceededException(String.format("The state table needs %d bytes to grow past %d states, more than its limit of %d bytes.",
+					peakBytes, size, memoryLimit));
+		}
+		ByteBuffer[] oldSegments = segments;
+		long oldCapacity = capacity;
+		allocate(capacityBits + 1);
+		for (long oldIndex = 0; oldIndex < oldCapacity; oldIndex++)
+		{
+			ByteBuffer segment = oldSegments[(int) (oldIndex >>> SEGMENT_SHIFT)];
+			int offset = (int) (oldIndex & SEGMENT_MASK) * ENTRY_BYTES;
+			long state = segment.getLong(offset);
+			if (state != 0)
+			{
+				write(indexOf(state), state, segment.getInt(offset + 8));
+			}
+		}
+		free(oldSegments);
+	}
+
+	/**
+	 * @return The number of states in the table.
+	 */
+	public long size()
+	{
+		return size;
+	}
+
+	/**
+	 * @return The number of bytes the entries currently take up.
+	 */
+	public long getMemoryUsed()
+	{
+		return bytesFor(capacityBits);
+	}
+
+	public long getMemoryLimit()
+	{
+		return memoryLimit;
+	}
+
+	/**
+	 * Removes every state, keeping the memory already allocated.
+	 */
+	public void clear()
+	{
+		for (ByteBuffer segment : segments)
+		{
+			for (int offset = 0; offset < segment.capacity(); offset += ENTRY_BYTES)
+			{
+				segment.putLong(offset, 0);
+			}
+		}
+		zeroStatePayload = ABSENT;
+		size = 0;
+	}
+
+	/**
+	 * Frees the memory of the table. The table must not be used afterwards.
+	 */
+	@Override
+	public void close()
+	{
+		if (segments != null)
+		{
+			free(segments);
+			segments = null;
+			zeroStatePayload = ABSENT;
+			size = 0;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package AISearch;
+
+/**
+ * The open list of an A* search: the entries waiting to be expanded, polled in order of their f value with ties broken towards the larger g value.
+ * An entry is open while it is held by an open list, see {@link OpenListEntry#isOpen()}, and its key can be decreased in place.
+ * <p>
+ * Which implementation is fastest depends on the f values: {@link BinaryHeapOpenList} suits any keys,
+ * {@link PairingHeapOpenList} decreases keys in constant amortised time, and {@link BucketOpenList} polls in constant time
+ * when the f values are small non-negative integers, as they are for sliding tile puzzles.
+ * The open list of a search is chosen with {@link SearchOptions#setOpenListFactory(java.util.function.Supplier)}.
+ */
+public interface OpenList
+{
+	boolean isEmpty();
+
+	int size();
+
+	/**
+	 * @return The entry with the lowest f value, without removing it.
+	 */
+	OpenListEntry peek();
+
+	/**
+	 * Adds an entry that is not currently in the open list.
+	 *
+	 * @param entry The entry to add.
+	 */
+	void push(OpenListEntry entry);
+
+	/**
+	 * Removes the entry with the lowest f value.
+	 *
+	 * @return The removed entry, which is marked as closed.
+	 */
+	OpenListEntry poll();
+
+	/**
+	 * Replaces the node and costs of an entry with a cheaper path to the same state.
+	 * If the entry is open it is moved towards the front, otherwise it is reopened.
+	 *
+	 * @param entry  The entry to update.
+	 * @param node   The node that reached the state more cheaply.
+	 * @param gValue The new path cost.
+	 * @param fValue The new estimated total cost.
+	 */
+	void decreaseKey(OpenListEntry entry, AbstractSearchNode node, int gValue, int fValue);
+
+	/**
+	 * Removes every entry, marking them all as closed.
+	 */
+	void clear();
+}
@@ -0,0 +1,56 @@
+package AISearch;
+
+/**
+ * A node waiting in the open list of a best first search along with the costs it is ordered by.
+ * The entry is kept for the whole search so a state that is found again through a cheaper path
+ * can have its key decreased, or be reopened after it was closed, without a second lookup.
+ */
+public class OpenListEntry
+{
+	AbstractSearchNode node;
+	int fValue;
+	int gValue;
+	int hValue;
+	int heapIndex = -1;
+	boolean exactHValue;
+	// links kept by the open lists that are not held in an array
+	OpenListEntry next;
+	OpenListEntry previous;
+	OpenListEntry child;
+
+	OpenListEntry(AbstractSearchNode node, int gValue, int hValue, int fValue)
+	{
+		this.node = node;
+		this.gValue = gValue;
+		this.hValue = hValue;
+		this.fValue = fValue;
+	}
+
+	public AbstractSearchNode getNode()
+	{
+		return node;
+	}
+
+	public int getFValue()
+	{
+		return fValue;
+	}
+
+	public int getGValue()
+	{
+		return gValue;
+	}
+
+	public int getHValue()
+	{
+		return hValue;
+	}
+
+	/**
+	 * @return True if the entry is currently in the open list, false if it has been closed.
+	 */
+	public boolean isOpen()
+	{
+		return heapIndex >= 0;
+	}
+}
@@ -0,0 +1,169 @@
+package AISearch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+/**
+ * A pairing heap of open list entries ordered by f value, breaking ties towards the larger g value.
+ * Adding an entry and decreasing its key take constant time, as the entry is only linked in as a child of the root,
+ * and removing the root pairs up its children in two passes, which takes logarithmic amortised time.
+ * The heap is built from links in the entries themselves, so it allocates nothing as it runs.
+ */
+public class PairingHeapOpenList implements OpenList
+{
+	private final ArrayList<OpenListEntry> pairs = new ArrayList<>();
+	private OpenListEntry root;
+	private int size;
+
+	@Override
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public OpenListEntry peek()
+	{
+		return root;
+	}
+
+	@Override
+	public void clear()
+	{
+		ArrayDeque<OpenListEntry> pending = new ArrayDeque<>();
+		if (root != null)
+		{
+			pending.push(root);
+		}
+		while (!pending.isEmpty())
+		{
+			OpenListEntry entry = pending.pop();
+			if (entry.next != null)
+			{
+				pending.push(entry.next);
+			}
+			if (entry.child != null)
+			{
+				pending.push(entry.child);
+			}
+			entry.next = entry.previous = entry.child = null;
+			entry.heapIndex = -1;
+		}
+		root = null;
+		size = 0;
+	}
+
+	@Override
+	public void push(OpenListEntry entry)
+	{
+		entry.next = entry.previous = entry.child = null;
+		entry.heapIndex = 0;
+		root = root == null ? entry : meld(root, entry);
+		size++;
+	}
+
+	@Override
+	public OpenListEntry poll()
+	{
+		OpenListEntry top = root;
+		root = mergePairs(top.child);
+		top.child = null;
+		top.heapIndex = -1;
+		size--;
+		return top;
+	}
+
+	@Override
+	public void decreaseKey(OpenListEntry entry, AbstractSearchNode node, int gValue, int fValue)
+	{
+		entry.node = node;
+		entry.gValue = gValue;
+		entry.fValue = fValue;
+		if (!entry.isOpen())
+		{
+			push(entry);
+		} else if (entry != root)
+		{
+			// the subtree of the entry stays ordered, so it is cut off and melded with the root
+			if (entry.previous.child == entry)
+			{
+				entry.previous.child = entry.next;
+			} else
+			{
+				entry.previous.next = entry.next;
+			}
+			if (entry.next != null)
+			{
+				entry.next.previous = entry.previous;
+			}
+			entry.next = entry.previous = null;
+			root = meld(root, entry);
+		}
+	}
+
+	private static boolean before(OpenListEntry a, OpenListEntry b)
+	{
+		return a.fValue < b.fValue || (a.fValue == b.fValue && a.gValue > b.gValue);
+	}
+
+	/**
+	 * Makes the later of two roots the first child of the other one.
+	 * The previous link of an entry points to its left sibling, or to its parent if it is the first child.
+	 */
+	private static OpenListEntry meld(OpenListEntry a, OpenListEntry b)
+	{
+		if (before(b, a))
+		{
+			OpenListEntry swap = a;
+			a = b;
+			b = swap;
+		}
+		b.previous = a;
+		b.next = a.child;
+		if (a.child != null)
+		{
+			a.child.previous = b;
+		}
+		a.child = b;
+		return a;
+	}
+
+	/**
+	 * Melds the siblings in pairs from left to right, then melds the pairs from right to left into a single root.
+	 */
+	private OpenListEntry mergePairs(OpenListEntry first)
+	{
+		if (first == null)
+		{
+			return null;
+		}
+		OpenListEntry current = first;
+		while (current != null)
+		{
+			OpenListEntry a = current;
+			OpenListEntry b = a.next;
+			a.next = a.previous = null;
+			if (b == null)
+			{
+				pairs.add(a);
+				break;
+			}
+			current = b.next;
+			b.next = b.previous = null;
+			pairs.add(meld(a, b));
+		}
+		OpenListEntry merged = pairs.get(pairs.size() - 1);
+		for (int i = pairs.size() - 2; i >= 0; i--)
+		{
+			merged = meld(pairs.get(i), merged);
+		}
+		pairs.clear();
+		return merged;
+	}
+}
@@ -0,0 +1,161 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Level synchronous breadth first search.
+ * Each layer is split into chunks that are expanded in parallel and the children are merged into the next layer.
+ * <p>
+ * Every child is given an order made of its depth, the index of its parent in the layer and its own index among its siblings.
+ * A state is kept by the child with the lowest order, and states from earlier layers always have a lower order,
+ * so the contents and order of every layer, and the goal returned, are the same as a sequential search would produce
+ * no matter how the chunks are scheduled.
+ */
+class ParallelBreadthFirstSearch
+{
+	private static final int CHUNK_SIZE = 1024;
+	private static final int DEPTH_SHIFT = 44;
+	private static final int NODE_SHIFT = 8;
+
+	private final ConcurrentHashMap<StateKey, Long> visited = new ConcurrentHashMap<>();
+	private final SearchOptions options;
+	private final SearchListener listener;
+
+	private ParallelBreadthFirstSearch(SearchOptions options)
+	{
+		this.options = options;
+		this.listener = options.getListener();
+	}
+
+	/**
+	 * @param originNode The root node of the search, which must not be in the goal state.
+	 * @param depthLimit The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param pool       The pool that expands the chunks of each layer.
+	 * @param options    The settings of the search.
+	 * @param statistics The statistics the counters of every chunk are added to.
+	 * @return The first goal node in the shallowest layer that holds one.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit or the search is cancelled.
+	 */
+	static AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, ForkJoinPool pool, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		ParallelBreadthFirstSearch search = new ParallelBreadthFirstSearch(options);
+		search.visited.put(new StateKey(originNode), 0L);
+		List<AbstractSearchNode> layer = List.of(originNode);
+		for (int depth = 0; depth < depthLimit && !layer.isEmpty(); depth++)
+		{
+			List<Chunk> chunks = new ArrayList<>();
+			for (int start = 0; start < layer.size(); start += CHUNK_SIZE)
+			{
+				chunks.add(search.new Chunk(layer, start, Math.min(start + CHUNK_SIZE, layer.size()), depth + 1));
+			}
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks.stream().map(chunk -> ForkJoinTask.adapt(chunk::generate)).toList())));
+			// chunks stop early once the search is cancelled, so the layer is incomplete and must not be used
+			options.checkCancelled();
+			pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(chunks.stream().map(chunk -> ForkJoinTask.adapt(chunk::resolve)).toList())));
+			ArrayList<AbstractSearchNode> nextLayer = new ArrayList<>();
+			for (Chunk chunk : chunks)
+			{
+				statistics.add(chunk.statistics);
+			}
+			for (Chunk chunk : chunks)
+			{
+				if (chunk.goalNode != null)
+				{
+					return chunk.goalNode;
+				}
+				nextLayer.addAll(chunk.survivors);
+			}
+			statistics.updateFringeSize(nextLayer.size());
+			statistics.updateClosedSetSize(search.visited.size());
+			if (search.listener != null)
+			{
+				search.listener.layerCompleted(depth, layer.size(), statistics);
+			}
+			layer = depth + 1 < depthLimit ? nextLayer : List.of();
+		}
+		throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+	}
+
+	private class Chunk
+	{
+		private final List<AbstractSearchNode> layer;
+		private final int start;
+		private final int end;
+		private final long depthOrder;
+		private final ArrayList<StateKey> keys = new ArrayList<>();
+		private final ArrayList<Long> orders = new ArrayList<>();
+		private final ArrayList<AbstractSearchNode> survivors = new ArrayList<>();
+		private final SearchStatistics statistics = new SearchStatistics();
+		private final ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		private final Consumer<AbstractSearchNode> collectChild = newNodes::add;
+		private AbstractSearchNode goalNode;
+
+		Chunk(List<AbstractSearchNode> layer, int start, int end, int childDepth)
+		{
+			this.layer = layer;
+			this.start = start;
+			this.end = end;
+			this.depthOrder = (long) childDepth << DEPTH_SHIFT;
+		}
+
+		/**
+		 * Expands the nodes of the chunk and claims the state of every child that was not in an earlier layer.
+		 */
+		void generate()
+		{
+			for (int index = start; index < end && !options.isStopRequested(); index++)
+			{
+				AbstractSearchNode currentNode = layer.get(index);
+				newNodes.clear();
+				currentNode.forEachChildNode(collectChild);
+				statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+				if (listener != null)
+				{
+					listener.nodeExpanded(currentNode, statistics);
+				}
+				for (int childIndex = 0; childIndex < newNodes.size(); childIndex++)
+				{
+					AbstractSearchNode node = newNodes.get(childIndex);
+					StateKey key = new StateKey(node);
+					long order = depthOrder | ((long) index << NODE_SHIFT) | childIndex;
+					if (visited.merge(key, order, Math::min) == order)
+					{
+						keys.add(key);
+						orders.add(order);
+					} else
+					{
+						statistics.duplicatesPruned++;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Keeps the children that still hold the lowest order for their state once every chunk has been generated.
+		 */
+		void resolve()
+		{
+			for (int i = 0; i < keys.size(); i++)
+			{
+				if (visited.get(keys.get(i)).longValue() == orders.get(i))
+				{
+					AbstractSearchNode node = keys.get(i).getNode();
+					if (node.inGoalState())
+					{
+						goalNode = node;
+						return;
+					}
+					survivors.add(node);
+				} else
+				{
+					statistics.duplicatesPruned++;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,300 @@
+package AISearch;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hash distributed A* search.
+ * Every state is owned by one worker thread, chosen from its state hash, and only its owner keeps it in an open list and closed set.
+ * Child nodes owned by other workers are buffered and sent to them in batches through lock free queues.
+ * <p>
+ * Workers keep expanding until no open node anywhere has an f value lower than the cost of the best goal found,
+ * which proves that goal is optimal for an admissible heuristic. Closed states reached by a cheaper path are always reopened,
+ * since workers expand in their own f order rather than a global one. The search has finished when every worker is idle
+ * and no batch is in flight, checked against a wake up counter so a worker waking during the check is never missed.
+ */
+class ParallelHeuristicSearch
+{
+	private static final int BATCH_SIZE = 64;
+	private static final int FLUSH_INTERVAL = 256;
+	private static final long IDLE_PARK_NANOS = 20_000;
+
+	private final int depthLimit;
+	private final SearchOptions options;
+	private final Worker[] workers;
+	private final AtomicReference<AbstractSearchNode> incumbent = new AtomicReference<>();
+	private final AtomicInteger incumbentCost = new AtomicInteger(Integer.MAX_VALUE);
+	private final AtomicLong nodesInFlight = new AtomicLong();
+	private final AtomicInteger idleWorkers = new AtomicInteger();
+	private final AtomicLong wakeUps = new AtomicLong();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private volatile boolean finished;
+
+	private ParallelHeuristicSearch(int depthLimit, int threadCount, SearchOptions options)
+	{
+		this.depthLimit = depthLimit;
+		this.options = options;
+		this.workers = new Worker[threadCount];
+		for (int i = 0; i < threadCount; i++)
+		{
+			workers[i] = new Worker(i);
+		}
+	}
+
+	/**
+	 * @param originNode  The root node of the search, which must not be in the goal state.
+	 * @param depthLimit  The depth of the deepest node that will be checked if it is in the goal state.
+	 * @param threadCount The number of worker threads.
+	 * @param options     The settings of the search.
+	 * @param statistics  The statistics the counters of every worker are added to.
+	 * @return The goal node with the lowest path cost.
+	 * @throws GoalNodeNotFoundException If no goal node is found within the depth limit, or a {@link SearchCancelledException} if the calling thread is interrupted.
+	 */
+	static AbstractSearchNode search(AbstractSearchNode originNode, int depthLimit, int threadCount, SearchOptions options, SearchStatistics statistics) throws GoalNodeNotFoundException
+	{
+		ParallelHeuristicSearch search = new ParallelHeuristicSearch(depthLimit, threadCount, options);
+		search.workers[search.ownerOf(originNode)].insert(originNode);
+		Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++)
+		{
+			threads[i] = new Thread(search.workers[i], "hda-worker-" + i);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		try
+		{
+			for (Thread thread : threads)
+			{
+				thread.join();
+			}
+		} catch (InterruptedException e)
+		{
+			search.finished = true;
+			Thread.currentThread().interrupt();
+			throw new SearchCancelledException("The search was interrupted.");
+		}
+		for (Worker worker : search.workers)
+		{
+			statistics.add(worker.statistics);
+		}
+		Throwable failure = search.failure.get();
+		if (failure instanceof GoalNodeNotFoundException goalNodeNotFoundException)
+		{
+			throw goalNodeNotFoundException;
+		} else if (failure instanceof RuntimeException runtimeException)
+		{
+			throw runtimeException;
+		} else if (failure instanceof Error error)
+		{
+			throw error;
+		}
+		AbstractSearchNode goalNode = search.incumbent.get();
+		if (goalNode == null)
+		{
+			throw new GoalNodeNotFoundException("No solution found up to a depth of: " + depthLimit);
+		}
+		return goalNode;
+	}
+
+	private int ownerOf(AbstractSearchNode node)
+	{
+		long mixed = (node.stateHash() & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+		return (int) (((mixed >>> 32) * workers.length) >>> 32);
+	}
+
+	private void offerGoal(AbstractSearchNode node)
+	{
+		int cost = node.getNodeDepth();
+		int current;
+		while (cost < (current = incumbentCost.get()))
+		{
+			if (incumbentCost.compareAndSet(current, cost))
+			{
+				incumbent.set(node);
+				return;
+			}
+		}
+	}
+
+	private boolean checkFinished()
+	{
+		long wakeUpsBefore = wakeUps.get();
+		return idleWorkers.get() == workers.length && nodesInFlight.get() == 0 && wakeUps.get() == wakeUpsBefore;
+	}
+
+	private class Worker implements Runnable
+	{
+		private final int index;
+		private final OpenList fringe = options.getOpenListFactory().get();
+		private final NodeHashMap<OpenListEntry> entries = new NodeHashMap<>();
+		private final ConcurrentLinkedQueue<AbstractSearchNode[]> inbox = new ConcurrentLinkedQueue<>();
+		private final ArrayList<ArrayList<AbstractSearchNode>> outboxes = new ArrayList<>();
+		private final SearchStatistics statistics = new SearchStatistics();
+		private final SearchListener listener = options.getListener();
+		private final ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+		private final Consumer<AbstractSearchNode> collectChild = newNodes::add;
+		private boolean idle;
+
+		Worker(int index)
+		{
+			this.index = index;
+			for (int i = 0; i < workers.length; i++)
+			{
+				outboxes.add(new ArrayList<>(BATCH_SIZE));
+			}
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				work();
+			} catch (Throwable e)
+			{
+				failure.compareAndSet(null, e);
+				finished = true;
+			}
+		}
+
+		private void work() throws SearchCancelledException
+		{
+			int expansions = 0;
+			while (!finished)
+			{
+				options.checkCancelled();
+				receive();
+				if (!fringe.isEmpty() && fringe.peek().fValue < incumbentCost.get())
+				{
+					expand(fringe.poll().node);
+					if (++expansions % FLUSH_INTERVAL == 0)
+					{
+						flush();
+					}
+					continue;
+				}
+				// nothing left here can lead to a better goal than the incumbent
+				fringe.clear();
+				flush();
+				if (!idle)
+				{
+					idle = true;
+					idleWorkers.incrementAndGet();
+				}
+				if (checkFinished())
+				{
+					finished = true;
+				} else if (inbox.isEmpty())
+				{
+					LockSupport.parkNanos(IDLE_PARK_NANOS);
+				}
+			}
+		}
+
+		private void receive()
+		{
+			AbstractSearchNode[] batch;
+			while ((batch = inbox.poll()) != null)
+			{
+				if (idle)
+				{
+					// leave the idle state before the batch stops counting as in flight
+					idle = false;
+					idleWorkers.decrementAndGet();
+					wakeUps.incrementAndGet();
+				}
+				for (AbstractSearchNode node : batch)
+				{
+					insert(node);
+				}
+				nodesInFlight.addAndGet(-batch.length);
+			}
+		}
+
+		private void insert(AbstractSearchNode node)
+		{
+			int gValue = node.getNodeDepth();
+			OpenListEntry entry = entries.get(node);
+			if (entry == null)
+			{
+				int hValue = node.getHeuristicValue();
+				entry = new OpenListEntry(node, gValue, hValue, gValue + hValue);
+				entries.put(node, entry);
+				fringe.push(entry);
+			} else if (gValue < entry.gValue)
+			{
+				// workers do not expand in a global f order, so a closed state can still be reached by a cheaper path even with a consistent heuristic
+				fringe.decreaseKey(entry, node, gValue, gValue + entry.hValue);
+			} else
+			{
+				statistics.duplicatesPruned++;
+			}
+		}
+
+		private void expand(AbstractSearchNode currentNode)
+		{
+			if (currentNode.getNodeDepth() >= depthLimit)
+			{
+				return;
+			}
+			newNodes.clear();
+			currentNode.forEachChildNode(collectChild);
+			statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+			if (listener != null)
+			{
+				listener.nodeExpanded(currentNode, statistics);
+			}
+			for (AbstractSearchNode node : newNodes)
+			{
+				if (node.inGoalState())
+				{
+					offerGoal(node);
+					continue;
+				}
+				if (node.getNodeDepth() >= depthLimit || node.getNodeDepth() + node.getHeuristicValue() >= incumbentCost.get())
+				{
+					continue;
+				}
+				int owner = ownerOf(node);
+				if (owner == index)
+				{
+					insert(node);
+				} else
+				{
+					ArrayList<AbstractSearchNode> outbox = outboxes.get(owner);
+					outbox.add(node);
+					if (outbox.size() == BATCH_SIZE)
+					{
+						send(owner, outbox);
+					}
+				}
+			}
+			statistics.updateFringeSize(fringe.size());
+			statistics.updateClosedSetSize(entries.size());
+		}
+
+		private void flush()
+		{
+			for (int owner = 0; owner < outboxes.size(); owner++)
+			{
+				if (!outboxes.get(owner).isEmpty())
+				{
+					send(owner, outboxes.get(owner));
+				}
+			}
+		}
+
+		private void send(int owner, ArrayList<AbstractSearchNode> outbox)
+		{
+			AbstractSearchNode[] batch = outbox.toArray(new AbstractSearchNode[0]);
+			outbox.clear();
+			nodesInFlight.addAndGet(batch.length);
+			workers[owner].inbox.add(batch);
+		}
+	}
+}
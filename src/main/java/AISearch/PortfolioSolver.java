@@ -0,0 +1,376 @@
+package AISearch;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Races several search strategies on the same root node and returns the first acceptable goal node found.
+ * <p>
+ * Every strategy runs on its own thread with its own copy of the search options, so as soon as one of them finds an acceptable
+ * goal node the others are cancelled and interrupted, and drop their fringes and closed sets as they stop.
+ * A deadline set on the options applies to the whole query and is kept by the copy of every strategy.
+ * This trades processor time for the latency of each query: a query takes as long as the fastest strategy for that instance.
+ * <p>
+ * The solver counts how often each strategy is run and wins. Strategies are ranked by their win rate, and with
+ * {@link #setMaxConcurrentStrategies(int)} only the best ranked ones are run; a strategy that has been run fewer than three times
+ * is always ranked first so it gets a chance to prove itself.
+ * <p>
+ * Every strategy searches from its own copy of the root node made with {@link AbstractSearchNode#copyNode()}.
+ * Nodes that cannot be copied are shared by the strategies instead: their depth and heuristic value are set before the strategies start,
+ * so the strategies only ever write the same depth of zero to them, but every other method of such a node must be safe to call from several threads at once.
+ */
+public class PortfolioSolver implements AutoCloseable
+{
+	private static final int WARM_UP_RUNS = 3;
+
+	private final SearchOptions options;
+	private final ArrayList<RankedStrategy> strategies = new ArrayList<>();
+	private final ExecutorService executor;
+	private volatile Predicate<AbstractSearchNode> acceptance = node -> true;
+	private volatile int maxConcurrentStrategies = Integer.MAX_VALUE;
+
+	/**
+	 * @param options The settings copied for every strategy of every query.
+	 */
+	public PortfolioSolver(SearchOptions options)
+	{
+		this.options = options;
+		this.executor = Executors.newCachedThreadPool(runnable ->
+		{
+			Thread thread = new Thread(runnable, "portfolio-solver");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Adds a strategy to the portfolio.
+	 *
+	 * @param name     The name the statistics of the strategy are reported under.
+	 * @param strategy The search.
+	 * @return This instance.
+	 */
+	public synchronized PortfolioSolver addStrategy(String name, SearchStrategy strategy)
+	{
+		strategies.add(new RankedStrategy(name, strategy));
+		return this;
+	}
+
+	/**
+	 * Sets the test a goal node has to pass to win, for example a largest path cost.
+	 * A goal node that fails it is thrown away and the other strategies keep searching. By default every goal node is accepted.
+	 *
+	 * @param acceptance The test.
+	 * @return This instance.
+	 */
+	public PortfolioSolver setAcceptance(Predicate<AbstractSearchNode> acceptance)
+	{
+		this.acceptance = acceptance;
+		return this;
+	}
+
+	/**
+	 * Limits each query to the best ranked strategies.
+	 *
+	 * @param maxConcurrentStrategies The largest number of strategies run at once.
+	 * @return This instance.
+	 * @throws IllegalArgumentException If the number of strategies is too small.
+	 */
+	public PortfolioSolver setMaxConcurrentStrategies(int maxConcurrentStrategies) throws IllegalArgumentException
+	{
+		if (maxConcurrentStrategies < 1)
+		{
+			throw new IllegalArgumentException(String.format("A strategy count of %d is too low. Expected > 0.", maxConcurrentStrategies));
+		}
+		this.maxConcurrentStrategies = maxConcurrentStrategies;
+		return this;
+	}
+
+	/**
+	 * Runs the best ranked strategies on a root node at once and returns the first acceptable goal node, cancelling the others.
+	 *
+	 * @param originNode The root node to solve.
+	 * @return The first acceptable goal node found.
+	 * @throws GoalNodeNotFoundException If every strategy finished without an acceptable goal node
+	 *                                   (a {@link SearchCancelledException} if the deadline of the options passed first).
+	 * @throws InterruptedException      If the calling thread is interrupted while waiting, in which case every strategy is cancelled.
+	 * @throws IllegalStateException     If no strategy has been added, or a strategy failed with an exception that is not a {@link GoalNodeNotFoundException},
+	 *                                   in which case that exception is the cause.
+	 */
+	public AbstractSearchNode solve(AbstractSearchNode originNode) throws GoalNodeNotFoundException, InterruptedException, IllegalStateException
+	{
+		List<RankedStrategy> chosen = rankStrategies().stream()
+				.limit(maxConcurrentStrategies)
+				.map(statistics -> statistics.strategy)
+				.toList();
+		if (chosen.isEmpty())
+		{
+			throw new IllegalStateException("The portfolio has no strategies.");
+		}
+		Predicate<AbstractSearchNode> acceptance = this.acceptance;
+		CompletableFuture<AbstractSearchNode> winner = new CompletableFuture<>();
+		AtomicInteger running = new AtomicInteger(chosen.size());
+		ArrayList<SearchOptions> runOptions = new ArrayList<>();
+		ArrayList<Future<?>> runs = new ArrayList<>();
+		try
+		{
+			AbstractSearchNode firstOrigin = copyOrigin(originNode);
+			if (firstOrigin == null)
+			{
+				// the strategies share the root, so everything they would write to it is written here before they start
+				originNode.setNodeDepth(0);
+				originNode.getHeuristicValue();
+			}
+			for (RankedStrategy strategy : chosen)
+			{
+				SearchOptions strategyOptions = options.copyWithDeadline();
+				AbstractSearchNode strategyOrigin = firstOrigin == null ? originNode : runs.isEmpty() ? firstOrigin : originNode.copyNode();
+				runOptions.add(strategyOptions);
+				strategy.recordRun();
+				runs.add(executor.submit(() -> run(strategy, strategyOrigin, strategyOptions, acceptance, winner, running)));
+			}
+			AbstractSearchNode goalNode = winner.get(options.getRemainingNanos(), TimeUnit.NANOSECONDS);
+			if (goalNode == null)
+			{
+				if (options.getRemainingNanos() == 0)
+				{
+					throw new SearchCancelledException("The search timed out.");
+				}
+				throw new GoalNodeNotFoundException(String.format("None of the %d strategies found an acceptable solution.", chosen.size()));
+			}
+			return goalNode;
+		} catch (TimeoutException e)
+		{
+			throw new SearchCancelledException("The search timed out.");
+		} catch (ExecutionException e)
+		{
+			throw new IllegalStateException(e.getCause());
+		} finally
+		{
+			for (SearchOptions strategyOptions : runOptions)
+			{
+				strategyOptions.cancel();
+			}
+			for (Future<?> run : runs)
+			{
+				run.cancel(true);
+			}
+		}
+	}
+
+	private void run(RankedStrategy strategy, AbstractSearchNode originNode, SearchOptions strategyOptions, Predicate<AbstractSearchNode> acceptance,
+			CompletableFuture<AbstractSearchNode> winner, AtomicInteger running)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			AbstractSearchNode goalNode = strategy.strategy.search(originNode, strategyOptions);
+			if (acceptance.test(goalNode) && winner.complete(goalNode))
+			{
+				strategy.recordWin(System.nanoTime() - startNanos);
+			}
+		} catch (SearchCancelledException e)
+		{
+			// lost the race or timed out
+		} catch (GoalNodeNotFoundException e)
+		{
+			if (!winner.isDone())
+			{
+				strategy.recordFailure();
+			}
+		} catch (RuntimeException | Error e)
+		{
+			// a fault in the strategy rather than a search that failed, so it is passed on to the caller of solve
+			strategy.recordFailure();
+			winner.completeExceptionally(e);
+		} finally
+		{
+			if (running.decrementAndGet() == 0)
+			{
+				winner.complete(null);
+			}
+		}
+	}
+
+	/**
+	 * @return A copy of the root node, or null if the node does not support {@link AbstractSearchNode#copyNode()}.
+	 */
+	private static AbstractSearchNode copyOrigin(AbstractSearchNode originNode)
+	{
+		try
+		{
+			return originNode.copyNode();
+		} catch (UnsupportedOperationException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Orders the strategies with fewer than the warm up runs first, then by their win rate with one win and one loss added
+	 * so strategies with few runs are not ranked at the extremes, then by their mean time to win.
+	 * The counters are read once before sorting, since strategies from earlier queries may still be updating them.
+	 */
+	private List<StrategyStatistics> rankStrategies()
+	{
+		ArrayList<StrategyStatistics> ranked = new ArrayList<>();
+		synchronized (this)
+		{
+			for (RankedStrategy strategy : strategies)
+			{
+				ranked.add(strategy.snapshot());
+			}
+		}
+		ranked.sort(Comparator.comparing((StrategyStatistics statistics) -> statistics.runs >= WARM_UP_RUNS)
+				.thenComparing(StrategyStatistics::getScore, Comparator.reverseOrder())
+				.thenComparing(statistics -> statistics.wins == 0 ? Long.MAX_VALUE : statistics.totalWinNanos / statistics.wins));
+		return ranked;
+	}
+
+	/**
+	 * @return The statistics of every strategy, in the order they are ranked for the next query.
+	 */
+	public List<StrategyStatistics> getStrategyStatistics()
+	{
+		return List.copyOf(rankStrategies());
+	}
+
+	/**
+	 * Cancels the strategies still running and waits for their threads to stop.
+	 * If the calling thread is interrupted while waiting, its interrupt flag is set again.
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdownNow();
+		try
+		{
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * The counters of a strategy at the time they were read.
+	 */
+	public static final class StrategyStatistics
+	{
+		private final RankedStrategy strategy;
+		private final String name;
+		private final long runs;
+		private final long wins;
+		private final long failures;
+		private final long totalWinNanos;
+
+		private StrategyStatistics(RankedStrategy strategy, String name, long runs, long wins, long failures, long totalWinNanos)
+		{
+			this.strategy = strategy;
+			this.name = name;
+			this.runs = runs;
+			this.wins = wins;
+			this.failures = failures;
+			this.totalWinNanos = totalWinNanos;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		/**
+		 * @return The number of queries the strategy was run for.
+		 */
+		public long getRuns()
+		{
+			return runs;
+		}
+
+		/**
+		 * @return The number of queries the strategy found the winning goal node for.
+		 */
+		public long getWins()
+		{
+			return wins;
+		}
+
+		/**
+		 * @return The number of queries the strategy finished without a goal node before any other strategy won.
+		 */
+		public long getFailures()
+		{
+			return failures;
+		}
+
+		/**
+		 * @return The share of its runs the strategy won, counting one extra win and one extra loss.
+		 */
+		public double getScore()
+		{
+			return (wins + 1.0) / (runs + 2.0);
+		}
+
+		/**
+		 * @return The mean time the strategy took to find the goal nodes it won with, or zero if it has not won.
+		 */
+		public Duration getMeanWinTime()
+		{
+			return Duration.ofNanos(wins == 0 ? 0 : totalWinNanos / wins);
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%s: runs=%d, wins=%d, failures=%d, meanWinTime=%dus", name, runs, wins, failures, getMeanWinTime().toNanos() / 1000);
+		}
+	}
+
+	private static final class RankedStrategy
+	{
+		private final String name;
+		private final SearchStrategy strategy;
+		private long runs;
+		private long wins;
+		private long failures;
+		private long totalWinNanos;
+
+		RankedStrategy(String name, SearchStrategy strategy)
+		{
+			this.name = name;
+			this.strategy = strategy;
+		}
+
+		synchronized void recordRun()
+		{
+			runs++;
+		}
+
+		synchronized void recordWin(long nanos)
+		{
+			wins++;
+			totalWinNanos += nanos;
+		}
+
+		synchronized void recordFailure()
+		{
+			failures++;
+		}
+
+		synchronized StrategyStatistics snapshot()
+		{
+			return new StrategyStatistics(this, name, runs, wins, failures, totalWinNanos);
+		}
+	}
+}
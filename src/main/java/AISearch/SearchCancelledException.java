@@ -0,0 +1,17 @@
+package AISearch;
+
+/**
+ * Thrown when a search stops before it has finished because it was cancelled, timed out or its thread was interrupted.
+ */
+public class SearchCancelledException extends GoalNodeNotFoundException
+{
+	public SearchCancelledException()
+	{
+		super("The search was cancelled.");
+	}
+
+	public SearchCancelledException(String message)
+	{
+		super(message);
+	}
+}
@@ -0,0 +1,328 @@
+package AISearch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A search that runs only as far as its caller pulls it. Each call to {@link #next()} expands nodes until the next goal node
+ * is reached and returns it, so the first few solutions, or every solution up to a depth, can be taken from a single search.
+ * With {@link #setReportExpandedNodes(boolean)} every node is returned as it is taken from the fringe instead.
+ * <p>
+ * A node is only expanded once the node after it is asked for, so stopping the iteration never does more work than was needed.
+ * Closing the iterator, or the stream from {@link #stream()}, drops the fringe and closed set and stops the statistics.
+ * The iteration also ends early once the options are cancelled or their deadline passes.
+ * Instances are created by {@link AISearch} and are not thread safe.
+ */
+public class SearchIterator implements Iterator<AbstractSearchNode>, AutoCloseable
+{
+	private final Fringe fringe;
+	private final boolean pruneExpandedNodes;
+	private final int depthLimit;
+	private final SearchOptions options;
+	private final SearchListener listener;
+	private final SearchStatistics statistics;
+	private final NodeHashMap<AbstractSearchNode> reachedNodes = new NodeHashMap<>();
+	private final ArrayList<AbstractSearchNode> newNodes = new ArrayList<>();
+	private final Consumer<AbstractSearchNode> collectChild = newNodes::add;
+	private boolean reportExpandedNodes;
+	private AbstractSearchNode pendingExpansion;
+	private AbstractSearchNode nextNode;
+	private boolean closed;
+
+	private SearchIterator(AbstractSearchNode originNode, Fringe fringe, boolean pruneExpandedNodes, int depthLimit, SearchOptions options)
+	{
+		this.fringe = fringe;
+		this.pruneExpandedNodes = pruneExpandedNodes;
+		this.depthLimit = depthLimit;
+		this.options = options;
+		this.listener = options.getListener();
+		this.statistics = options.startStatistics();
+		originNode.setNodeDepth(0);
+		if (!originNode.isSolvable())
+		{
+			// nothing can be returned so the search is not started
+			return;
+		}
+		fringe.add(originNode);
+		if (pruneExpandedNodes)
+		{
+			reachedNodes.put(originNode, originNode);
+		}
+	}
+
+	static SearchIterator depthFirst(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options)
+	{
+		return new SearchIterator(originNode, new StackFringe(), pruneExpandedNodes, depthLimit, options);
+	}
+
+	static SearchIterator breadthFirst(AbstractSearchNode originNode, boolean pruneExpandedNodes, int depthLimit, SearchOptions options)
+	{
+		return new SearchIterator(originNode, new QueueFringe(), pruneExpandedNodes, depthLimit, options);
+	}
+
+	static SearchIterator bestFirst(AbstractSearchNode originNode, int depthLimit, SearchOptions options)
+	{
+		return new SearchIterator(originNode, new OpenListFringe(options.getOpenListFactory().get()), true, depthLimit, options);
+	}
+
+	/**
+	 * Sets whether every node taken from the fringe is returned, goal or not, so a caller can watch the search as it goes.
+	 * Goal nodes can then be told apart with {@link AbstractSearchNode#inGoalState()}.
+	 *
+	 * @param reportExpandedNodes True to return every node, false to return only goal nodes.
+	 * @return This instance.
+	 */
+	public SearchIterator setReportExpandedNodes(boolean reportExpandedNodes)
+	{
+		this.reportExpandedNodes = reportExpandedNodes;
+		return this;
+	}
+
+	/**
+	 * @return The statistics of the search so far.
+	 */
+	public SearchStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (nextNode == null && !closed)
+		{
+			nextNode = advance();
+		}
+		return nextNode != null;
+	}
+
+	@Override
+	public AbstractSearchNode next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		AbstractSearchNode node = nextNode;
+		nextNode = null;
+		return node;
+	}
+
+	/**
+	 * @return A sequential stream of the nodes of this iterator, which closes the iterator when it is closed.
+	 */
+	public Stream<AbstractSearchNode> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(this::close);
+	}
+
+	@Override
+	public void close()
+	{
+		closed = true;
+		nextNode = null;
+		pendingExpansion = null;
+		fringe.clear();
+		reachedNodes.clear();
+		statistics.stop();
+	}
+
+	/**
+	 * Expands the node returned last, then takes nodes from the fringe until one should be returned.
+	 *
+	 * @return The node or null if the search has finished.
+	 */
+	private AbstractSearchNode advance()
+	{
+		if (pendingExpansion != null)
+		{
+			expand(pendingExpansion);
+			pendingExpansion = null;
+		}
+		while (!fringe.isEmpty() && !options.isStopRequested())
+		{
+			AbstractSearchNode node = fringe.poll();
+			if (pruneExpandedNodes && reachedNodes.get(node) != node)
+			{
+				// a shallower path to the state was found after this node was added
+				continue;
+			}
+			if (node.inGoalState() || reportExpandedNodes)
+			{
+				pendingExpansion = node;
+				return node;
+			}
+			expand(node);
+		}
+		close();
+		return null;
+	}
+
+	private void expand(AbstractSearchNode currentNode)
+	{
+		if (currentNode.getNodeDepth() >= depthLimit)
+		{
+			return;
+		}
+		newNodes.clear();
+		currentNode.forEachChildNode(collectChild);
+		statistics.recordExpansion(currentNode.getNodeDepth(), newNodes.size());
+		if (listener != null)
+		{
+			listener.nodeExpanded(currentNode, statistics);
+		}
+		for (AbstractSearchNode node : newNodes)
+		{
+			if (pruneExpandedNodes)
+			{
+				AbstractSearchNode reachedNode = reachedNodes.get(node);
+				if (reachedNode != null && reachedNode.getNodeDepth() <= node.getNodeDepth())
+				{
+					statistics.duplicatesPruned++;
+					continue;
+				}
+				reachedNodes.put(node, node);
+			}
+			fringe.add(node);
+		}
+		statistics.updateFringeSize(fringe.size());
+		statistics.updateClosedSetSize(reachedNodes.size());
+	}
+
+	/**
+	 * The order nodes are expanded in. Nodes replaced by a shallower path to their state are left in the fringe
+	 * and skipped when they are taken out, so no fringe has to support removal.
+	 */
+	private interface Fringe
+	{
+		void add(AbstractSearchNode node);
+
+		AbstractSearchNode poll();
+
+		boolean isEmpty();
+
+		int size();
+
+		void clear();
+	}
+
+	private static final class StackFringe implements Fringe
+	{
+		private final ArrayDeque<AbstractSearchNode> nodes = new ArrayDeque<>();
+
+		@Override
+		public void add(AbstractSearchNode node)
+		{
+			nodes.push(node);
+		}
+
+		@Override
+		public AbstractSearchNode poll()
+		{
+			return nodes.pop();
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return nodes.isEmpty();
+		}
+
+		@Override
+		public int size()
+		{
+			return nodes.size();
+		}
+
+		@Override
+		public void clear()
+		{
+			nodes.clear();
+		}
+	}
+
+	private static final class QueueFringe implements Fringe
+	{
+		private final ArrayDeque<AbstractSearchNode> nodes = new ArrayDeque<>();
+
+		@Override
+		public void add(AbstractSearchNode node)
+		{
+			nodes.add(node);
+		}
+
+		@Override
+		public AbstractSearchNode poll()
+		{
+			return nodes.poll();
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return nodes.isEmpty();
+		}
+
+		@Override
+		public int size()
+		{
+			return nodes.size();
+		}
+
+		@Override
+		public void clear()
+		{
+			nodes.clear();
+		}
+	}
+
+	private static final class OpenListFringe implements Fringe
+	{
+		private final OpenList openList;
+
+		OpenListFringe(OpenList openList)
+		{
+			this.openList = openList;
+		}
+
+		@Override
+		public void add(AbstractSearchNode node)
+		{
+			int gValue = node.getNodeDepth();
+			int hValue = node.getHeuristicValue();
+			openList.push(new OpenListEntry(node, gValue, hValue, gValue + hValue));
+		}
+
+		@Override
+		public AbstractSearchNode poll()
+		{
+			return openList.poll().node;
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return openList.isEmpty();
+		}
+
+		@Override
+		public int size()
+		{
+			return openList.size();
+		}
+
+		@Override
+		public void clear()
+		{
+			openList.clear();
+		}
+	}
+}
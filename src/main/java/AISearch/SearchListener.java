@@ -0,0 +1,44 @@
+package AISearch;
+
+/**
+ * Receives progress from a search as it runs. All methods do nothing by default so only the ones needed have to be implemented.
+ * Searches only call a listener that has been set with {@link SearchOptions#setListener(SearchListener)}.
+ * <p>
+ * Listeners are called on the searching threads, so a listener used by a parallel search must be thread safe.
+ * Nodes given to a listener may be changed once it returns and must not be kept.
+ */
+public interface SearchListener
+{
+	/**
+	 * Called after the child nodes of a node have been generated.
+	 *
+	 * @param node       The node expanded.
+	 * @param statistics The statistics of the search so far. For parallel searches these are the statistics of the calling thread.
+	 */
+	default void nodeExpanded(AbstractSearchNode node, SearchStatistics statistics)
+	{
+	}
+
+	/**
+	 * Called when a layer of the search has been expanded. Breadth first and beam searches report each depth
+	 * and iterative deepening reports each f bound; other searches have no layers and never call this.
+	 *
+	 * @param layer      The depth or f bound of the layer.
+	 * @param nodeCount  The number of nodes expanded in the layer.
+	 * @param statistics The statistics of the search so far.
+	 */
+	default void layerCompleted(int layer, long nodeCount, SearchStatistics statistics)
+	{
+	}
+
+	/**
+	 * Called by searches that keep improving their solution each time they finish a pass, with the best goal node found so far.
+	 *
+	 * @param goalNode           The best goal node found so far.
+	 * @param suboptimalityBound The factor its cost is proven to be within of the optimal cost.
+	 * @param statistics         The statistics of the search so far.
+	 */
+	default void solutionImproved(AbstractSearchNode goalNode, double suboptimalityBound, SearchStatistics statistics)
+	{
+	}
+}
@@ -0,0 +1,300 @@
+package AISearch;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Settings that change how a search is carried out.
+ * A new instance holds the default settings; setters return the instance so they can be chained.
+ */
+public class SearchOptions
+{
+	private boolean reopenClosedNodes = true;
+	private long deadlineNanos;
+	private boolean deadlineSet;
+	private volatile boolean cancelled;
+	private SearchListener listener;
+	private long stateTableMemoryLimit;
+	private boolean compactPaths;
+	private SolutionCache solutionCache;
+	private Supplier<? extends OpenList> openListFactory = BinaryHeapOpenList::new;
+	private long randomSeed;
+	private boolean randomSeedSet;
+	private volatile SearchStatistics statistics;
+
+	/**
+	 * Creates a copy of these settings that has not been cancelled and has no deadline,
+	 * so a single set of settings can be used for many searches that are cancelled separately.
+	 *
+	 * @return The copy.
+	 */
+	public SearchOptions copy()
+	{
+		SearchOptions copy = new SearchOptions();
+		copy.reopenClosedNodes = reopenClosedNodes;
+		copy.listener = listener;
+		copy.stateTableMemoryLimit = stateTableMemoryLimit;
+		copy.compactPaths = compactPaths;
+		copy.solutionCache = solutionCache;
+		copy.openListFactory = openListFactory;
+		copy.randomSeed = randomSeed;
+		copy.randomSeedSet = randomSeedSet;
+		return copy;
+	}
+
+	/**
+	 * Creates a copy of these settings that has not been cancelled but keeps their deadline,
+	 * so the searches started for a single query all stop by the deadline of that query.
+	 *
+	 * @return The copy.
+	 */
+	SearchOptions copyWithDeadline()
+	{
+		SearchOptions copy = copy();
+		copy.deadlineNanos = deadlineNanos;
+		copy.deadlineSet = deadlineSet;
+		return copy;
+	}
+
+	/**
+	 * @return True if closed states are reopened when a cheaper path to them is found.
+	 */
+	public boolean isReopenClosedNodes()
+	{
+		return reopenClosedNodes;
+	}
+
+	/**
+	 * Sets whether a state that has already been expanded is put back on the open list when a cheaper path to it is found.
+	 * This is only needed for heuristics that are admissible but not consistent; with a consistent heuristic no state is ever reopened.
+	 *
+	 * @param reopenClosedNodes True to reopen closed states.
+	 * @return This instance.
+	 */
+	public SearchOptions setReopenClosedNodes(boolean reopenClosedNodes)
+	{
+		this.reopenClosedNodes = reopenClosedNodes;
+		return this;
+	}
+
+	/**
+	 * @return The largest number of bytes an off heap closed set may use, or 0 if closed sets are kept on the heap.
+	 */
+	public long getStateTableMemoryLimit()
+	{
+		return stateTableMemoryLimit;
+	}
+
+	/**
+	 * Makes breadth first and A* searches keep their closed sets in an {@link OffHeapStateTable} when the origin node
+	 * {@link AbstractSearchNode#hasPackedState() has a packed state}. Such a closed set adds nothing for the garbage collector to trace,
+	 * and a search that would need more than the limit stops with a {@link MemoryLimitExceededException}.
+	 *
+	 * @param stateTableMemoryLimit The largest number of bytes the closed set may use, or 0 to keep closed sets on the heap.
+	 * @return This instance.
+	 */
+	public SearchOptions setStateTableMemoryLimit(long stateTableMemoryLimit)
+	{
+		this.stateTableMemoryLimit = stateTableMemoryLimit;
+		return this;
+	}
+
+	/**
+	 * @return True if searches drop the parents of the nodes they generate and rebuild the path from the closed set.
+	 */
+	public boolean isCompactPaths()
+	{
+		return compactPaths;
+	}
+
+	/**
+	 * Makes depth first, breadth first and A* searches that keep a closed set drop the parent of every node they generate,
+	 * so the nodes waiting in the fringe no longer keep whole paths reachable and only the move and depth of each node are held.
+	 * Once a goal is found the path is rebuilt by undoing the last move stored in the closed set for each state,
+	 * and the goal node returned has an ordinary chain of parent nodes.
+	 * This only applies when the origin node {@link AbstractSearchNode#supportsInPlaceMoves() supports in place moves}.
+	 *
+	 * @param compactPaths True to rebuild paths from the closed set.
+	 * @return This instance.
+	 */
+	public SearchOptions setCompactPaths(boolean compactPaths)
+	{
+		this.compactPaths = compactPaths;
+		return this;
+	}
+
+	/**
+	 * @return The cache of solved states shared by searches, or null if there is none.
+	 */
+	public SolutionCache getSolutionCache()
+	{
+		return solutionCache;
+	}
+
+	/**
+	 * Sets a cache of solved states that searches run with these settings read from and add to.
+	 * Searches that find optimal paths record them in the cache and return a cached path for their origin state without searching;
+	 * A* search with closed states not reopened may find a path that is not optimal, so it neither records nor looks up its origin state.
+	 * A* searches also use the cached distances of the states they reach. Depth first searches do not use the cache.
+	 * Copies of these settings share the same cache.
+	 *
+	 * @param solutionCache The cache, or null to remove it.
+	 * @return This instance.
+	 */
+	public SearchOptions setSolutionCache(SolutionCache solutionCache)
+	{
+		this.solutionCache = solutionCache;
+		return this;
+	}
+
+	/**
+	 * @return The factory of the open lists used by A* searches.
+	 */
+	public Supplier<? extends OpenList> getOpenListFactory()
+	{
+		return openListFactory;
+	}
+
+	/**
+	 * Sets the open list A* searches keep the nodes waiting to be expanded in. Each search asks the factory for a new open list.
+	 * The default is a {@link BinaryHeapOpenList}; a {@link BucketOpenList} is faster when the f values are small non-negative integers.
+	 * Weighted, anytime and checkpointed searches always use a binary heap, since their keys are not plain f values.
+	 *
+	 * @param openListFactory Creates an empty open list.
+	 * @return This instance.
+	 */
+	public SearchOptions setOpenListFactory(Supplier<? extends OpenList> openListFactory)
+	{
+		this.openListFactory = openListFactory;
+		return this;
+	}
+
+	/**
+	 * Sets the seed of the random order depth first searches put the children of each node in,
+	 * so a search run again with the same seed expands the same nodes and finds the same solution.
+	 * Without a seed every search uses a different order.
+	 *
+	 * @param randomSeed The seed.
+	 * @return This instance.
+	 */
+	public SearchOptions setRandomSeed(long randomSeed)
+	{
+		this.randomSeed = randomSeed;
+		this.randomSeedSet = true;
+		return this;
+	}
+
+	/**
+	 * Called by searches when they start to get the random numbers they order nodes with.
+	 */
+	Random createRandom()
+	{
+		return randomSeedSet ? new Random(randomSeed) : new Random();
+	}
+
+	/**
+	 * @return The listener told about the progress of searches, or null if there is none.
+	 */
+	public SearchListener getListener()
+	{
+		return listener;
+	}
+
+	/**
+	 * Sets a listener that is told about the progress of searches run with these settings.
+	 * Without a listener the searches only pay for a null check.
+	 *
+	 * @param listener The listener, or null to remove it.
+	 * @return This instance.
+	 */
+	public SearchOptions setListener(SearchListener listener)
+	{
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * @return The statistics of the search most recently started with these settings, or null if none has been started.
+	 */
+	public SearchStatistics getStatistics()
+	{
+		return statistics;
+	}
+
+	/**
+	 * Called by searches when they start to get a new set of statistics to fill in.
+	 */
+	SearchStatistics startStatistics()
+	{
+		SearchStatistics started = new SearchStatistics();
+		statistics = started;
+		return started;
+	}
+
+	/**
+	 * Sets a deadline for the searches run with these settings, counted from now.
+	 * A search that has not finished by the deadline stops with a {@link SearchCancelledException}.
+	 *
+	 * @param timeout The time the search may run for.
+	 * @return This instance.
+	 */
+	public SearchOptions setTimeout(Duration timeout)
+	{
+		this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+		this.deadlineSet = true;
+		return this;
+	}
+
+	/**
+	 * Asks every search running with these settings to stop. Searches check this between expansions
+	 * and stop with a {@link SearchCancelledException}. This may be called from any thread.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * @return True if the search has been cancelled or its deadline has passed.
+	 */
+	boolean isStopRequested()
+	{
+		return cancelled || (deadlineSet && System.nanoTime() - deadlineNanos > 0);
+	}
+
+	/**
+	 * @return The time left until the deadline in nanoseconds, zero once it has passed, or {@link Long#MAX_VALUE} if there is no deadline.
+	 */
+	long getRemainingNanos()
+	{
+		return deadlineSet ? Math.max(0, deadlineNanos - System.nanoTime()) : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Called by searches between expansions to stop them once they have been cancelled,
+	 * their deadline has passed or the searching thread has been interrupted.
+	 *
+	 * @throws SearchCancelledException If the search must stop.
+	 */
+	void checkCancelled() throws SearchCancelledException
+	{
+		if (cancelled)
+		{
+			throw new SearchCancelledException();
+		}
+		if (deadlineSet && System.nanoTime() - deadlineNanos > 0)
+		{
+			throw new SearchCancelledException("The search timed out.");
+		}
+		if (Thread.currentThread().isInterrupted())
+		{
+			throw new SearchCancelledException("The search was interrupted.");
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package AISearch;
+
+import java.util.Arrays;
+
+/**
+ * A solution stored as the goal node and the sequence of moves that lead to it from the origin node.
+ * Each move takes a single byte, so a solution is far smaller than the chain of parent nodes and cheap to store or send,
+ * and the path can be turned back into nodes at any time by replaying the moves on the origin node.
+ */
+public class SearchSolution
+{
+	private final AbstractSearchNode goalNode;
+	private final byte[] moves;
+
+	/**
+	 * @param goalNode The goal node reached by the moves.
+	 * @param moves    The moves from the origin node to the goal node, in order.
+	 */
+	public SearchSolution(AbstractSearchNode goalNode, byte[] moves)
+	{
+		this.goalNode = goalNode;
+		this.moves = moves.clone();
+	}
+
+	/**
+	 * Reads the moves of a solution from the chain of parent nodes of a goal node returned by a search.
+	 *
+	 * @param goalNode The goal node.
+	 * @return The solution.
+	 * @throws IllegalArgumentException If a node on the path does not know the move that created it.
+	 */
+	public static SearchSolution fromGoalNode(AbstractSearchNode goalNode) throws IllegalArgumentException
+	{
+		byte[] moves = new byte[goalNode.getNodeDepth()];
+		int length = 0;
+		for (AbstractSearchNode node = goalNode; node.getParentNode() != null && length < moves.length; node = node.getParentNode())
+		{
+			if (node.getLastMove() < 0 || node.getLastMove() > Byte.MAX_VALUE)
+			{
+				throw new IllegalArgumentException("The node at depth " + node.getNodeDepth() + " does not have a numbered move.");
+			}
+			moves[moves.length - ++length] = (byte) node.getLastMove();
+		}
+		return new SearchSolution(goalNode, Arrays.copyOfRange(moves, moves.length - length, moves.length));
+	}
+
+	/**
+	 * Finds the moves from the origin node to a goal node whose parent has been detached, by walking back through the closed set.
+	 * Starting from the goal state, the last move of each state is undone until the origin state is reached,
+	 * and the nodes on the path are then created again from the origin node.
+	 *
+	 * @param originNode The root node of the search, which must support in place moves.
+	 * @param goalNode   The goal node found by the search.
+	 * @param lastMoves  Gives the move that created the node kept in the closed set for the state of a node.
+	 * @return The goal node at the end of a newly created chain of parent nodes.
+	 */
+	static AbstractSearchNode rebuildPath(AbstractSearchNode originNode, AbstractSearchNode goalNode, LastMoveLookup lastMoves)
+	{
+		byte[] moves = new byte[goalNode.getNodeDepth()];
+		int length = 0;
+		AbstractSearchNode state = goalNode.copyNode();
+		// a goal node decoded from a packed state does not know its last move, so it is looked up like the others
+		int move = goalNode.getLastMove() >= 0 ? goalNode.getLastMove() : lastMoves.lastMoveOf(goalNode);
+		while (!state.equalsNode(originNode))
+		{
+			if (move < 0 || length == moves.length)
+			{
+				throw new IllegalStateException("The closed set does not lead back to the origin node.");
+			}
+			moves[moves.length - ++length] = (byte) move;
+			state.applyMove(state.getInverseMove(move));
+			move = lastMoves.lastMoveOf(state);
+		}
+		return new SearchSolution(goalNode, Arrays.copyOfRange(moves, moves.length - length, moves.length)).replay(originNode);
+	}
+
+	/**
+	 * Creates the nodes on the path of this solution again, starting from the origin node.
+	 *
+	 * @param originNode The root node the solution was found from, which must support in place moves.
+	 * @return The goal node at the end of the chain of nodes.
+	 * @throws IllegalArgumentException If one of the moves is not legal on the path from the origin node.
+	 */
+	public AbstractSearchNode replay(AbstractSearchNode originNode) throws IllegalArgumentException
+	{
+		AbstractSearchNode node = originNode;
+		for (int i = 0; i < moves.length; i++)
+		{
+			node = node.createChildNode(moves[i]);
+			if (node == null)
+			{
+				throw new IllegalArgumentException("Move " + i + " of the solution is not legal.");
+			}
+		}
+		return node;
+	}
+
+	public AbstractSearchNode getGoalNode()
+	{
+		return goalNode;
+	}
+
+	/**
+	 * @return A copy of the moves from the origin node to the goal node.
+	 */
+	public byte[] getMoves()
+	{
+		return moves.clone();
+	}
+
+	/**
+	 * @param index The position of the move on the path, counted from the origin node.
+	 * @return The move.
+	 */
+	public int getMove(int index)
+	{
+		return moves[index];
+	}
+
+	/**
+	 * @return The number of moves in the solution.
+	 */
+	public int getLength()
+	{
+		return moves.length;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SearchSolution{length=" + moves.length + ", moves=" + Arrays.toString(moves) + "}";
+	}
+
+	@FunctionalInterface
+	interface LastMoveLookup
+	{
+		int lastMoveOf(AbstractSearchNode state);
+	}
+}
@@ -0,0 +1,167 @@
+package AISearch;
+
+import java.time.Duration;
+
+/**
+ * Counters filled in by a search as it runs, used to compare strategies and to size their data structures.
+ * The values are only reliable once the search has finished; they can be read from {@link SearchOptions#getStatistics()}
+ * or from the {@link GoalNodeNotFoundException} thrown by a failed search.
+ * <p>
+ * For parallel searches the counters of all threads are added together, so the peak sizes are the sum of the peaks of each thread.
+ */
+public class SearchStatistics
+{
+	long nodesGenerated;
+	long nodesExpanded;
+	long duplicatesPruned;
+	long peakFringeSize;
+	long peakClosedSetSize;
+	int maxDepth;
+	double suboptimalityBound = Double.NaN;
+	private final long startNanos = System.nanoTime();
+	private long elapsedNanos = -1;
+
+	/**
+	 * Counts the expansion of a node at the given depth into the given number of child nodes.
+	 */
+	void recordExpansion(int depth, int childCount)
+	{
+		nodesExpanded++;
+		nodesGenerated += childCount;
+		if (childCount > 0 && depth >= maxDepth)
+		{
+			maxDepth = depth + 1;
+		}
+	}
+
+	/**
+	 * Counts a single child node at the given depth, for searches that generate child nodes one at a time.
+	 */
+	void recordGenerated(int depth)
+	{
+		nodesGenerated++;
+		if (depth > maxDepth)
+		{
+			maxDepth = depth;
+		}
+	}
+
+	void updateFringeSize(long fringeSize)
+	{
+		if (fringeSize > peakFringeSize)
+		{
+			peakFringeSize = fringeSize;
+		}
+	}
+
+	void updateClosedSetSize(long closedSetSize)
+	{
+		if (closedSetSize > peakClosedSetSize)
+		{
+			peakClosedSetSize = closedSetSize;
+		}
+	}
+
+	/**
+	 * Adds the counters of a part of the search run on another thread.
+	 */
+	void add(SearchStatistics other)
+	{
+		nodesGenerated += other.nodesGenerated;
+		nodesExpanded += other.nodesExpanded;
+		duplicatesPruned += other.duplicatesPruned;
+		peakFringeSize += other.peakFringeSize;
+		peakClosedSetSize += other.peakClosedSetSize;
+		maxDepth = Math.max(maxDepth, other.maxDepth);
+	}
+
+	void stop()
+	{
+		if (elapsedNanos < 0)
+		{
+			elapsedNanos = System.nanoTime() - startNanos;
+		}
+	}
+
+	/**
+	 * @return The number of child nodes generated.
+	 */
+	public long getNodesGenerated()
+	{
+		return nodesGenerated;
+	}
+
+	/**
+	 * @return The number of nodes whose child nodes were generated.
+	 */
+	public long getNodesExpanded()
+	{
+		return nodesExpanded;
+	}
+
+	/**
+	 * @return The number of child nodes thrown away because their state had already been reached.
+	 */
+	public long getDuplicatesPruned()
+	{
+		return duplicatesPruned;
+	}
+
+	/**
+	 * @return The largest number of nodes waiting to be expanded at once.
+	 */
+	public long getPeakFringeSize()
+	{
+		return peakFringeSize;
+	}
+
+	/**
+	 * @return The largest number of states held to detect duplicates at once.
+	 */
+	public long getPeakClosedSetSize()
+	{
+		return peakClosedSetSize;
+	}
+
+	/**
+	 * @return The depth of the deepest node generated.
+	 */
+	public int getMaxDepth()
+	{
+		return maxDepth;
+	}
+
+	/**
+	 * @return The factor the cost of the solution found is proven to be within of the optimal cost,
+	 * or NaN if the search does not report one. A bound of 1 means the solution is optimal.
+	 */
+	public double getSuboptimalityBound()
+	{
+		return suboptimalityBound;
+	}
+
+	/**
+	 * @return The time the search ran for, or has been running for if it has not finished.
+	 */
+	public Duration getWallTime()
+	{
+		return Duration.ofNanos(elapsedNanos < 0 ? System.nanoTime() - startNanos : elapsedNanos);
+	}
+
+	/**
+	 * @return The number of nodes generated per second of wall time.
+	 */
+	public double getNodesPerSecond()
+	{
+		long nanos = getWallTime().toNanos();
+		return nanos == 0 ? 0 : nodesGenerated * 1e9 / nanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		String counters = String.format("generated=%d, expanded=%d, duplicates=%d, peakFringe=%d, peakClosed=%d, maxDepth=%d, time=%dms, nodes/s=%.0f",
+				nodesGenerated, nodesExpanded, duplicatesPruned, peakFringeSize, peakClosedSetSize, maxDepth, getWallTime().toMillis(), getNodesPerSecond());
+		return Double.isNaN(suboptimalityBound) ? counters : counters + String.format(", bound=%.3f", suboptimalityBound);
+	}
+}
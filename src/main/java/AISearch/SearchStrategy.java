@@ -0,0 +1,17 @@
+package AISearch;
+
+/**
+ * A search that can be run on any root node with a set of options, for example
+ * {@code (node, options) -> AISearch.applyHeuristicSearch(node, 80, options)}.
+ */
+@FunctionalInterface
+public interface SearchStrategy
+{
+	/**
+	 * @param originNode The root node of the search.
+	 * @param options    The settings of the search.
+	 * @return The goal node found.
+	 * @throws GoalNodeNotFoundException If no goal node is found or the search is cancelled.
+	 */
+	AbstractSearchNode search(AbstractSearchNode originNode, SearchOptions options) throws GoalNodeNotFoundException;
+}
@@ -0,0 +1,267 @@
+package AISearch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of the optimal distance to the goal of states that have been solved before, along with the first move of an optimal path.
+ * Searches given a cache through {@link SearchOptions#setSolutionCache(SolutionCache)} answer an origin state whose whole path is cached
+ * without searching, record every state on the optimal paths they find, and A* searches use cached distances of the states they reach
+ * as exact heuristic values, finishing as soon as such a state is chosen for expansion.
+ * <p>
+ * States are keyed by their {@link AbstractSearchNode#getPackedState() packed state}, so only nodes with packed states are cached,
+ * and a cache must only be shared between searches for the same kind of node with the same goal.
+ * The least recently used entry is evicted once the cache is full. All methods may be called from any thread.
+ */
+public class SolutionCache
+{
+	/**
+	 * The payload returned for a state that is not in the cache.
+	 */
+	public static final int ABSENT = -1;
+
+	private static final int FILE_MAGIC = 0x534F4C43;
+	private static final int FILE_VERSION = 1;
+	private static final int NO_MOVE = 0xFF;
+
+	private final int maxEntries;
+	private final LinkedHashMap<Long, Integer> entries;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param maxEntries The largest number of states the cache holds.
+	 * @throws IllegalArgumentException If the number of entries is too small.
+	 */
+	public SolutionCache(int maxEntries) throws IllegalArgumentException
+	{
+		if (maxEntries < 1)
+		{
+			throw new IllegalArgumentException(String.format("A cache size of %d is too low. Expected > 0.", maxEntries));
+		}
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest)
+			{
+				return size() > SolutionCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Loads a cache saved with {@link #save(Path)}. If the file holds more states than fit, the least recently used ones are dropped.
+	 *
+	 * @param file       The file to read.
+	 * @param maxEntries The largest number of states the cache holds.
+	 * @return The cache.
+	 * @throws IOException If the file can not be read or is not a saved cache.
+	 */
+	public static SolutionCache load(Path file, int maxEntries) throws IOException
+	{
+		SolutionCache cache = new SolutionCache(maxEntries);
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+		{
+			if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION)
+			{
+				throw new IOException(file + " is not a saved solution cache.");
+			}
+			int count = input.readInt();
+			for (int i = 0; i < count; i++)
+			{
+				long state = input.readLong();
+				cache.entries.put(state, input.readInt());
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Writes every entry of the cache to a file, from the least to the most recently used, so it can be loaded again after a restart.
+	 * The entries are written to a temporary file next to it that is then moved over it, so a crash while saving leaves the old file whole.
+	 *
+	 * @param file The file to write, which is replaced if it exists.
+	 * @throws IOException If the file can not be written.
+	 */
+	public void save(Path file) throws IOException
+	{
+		Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+		{
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			synchronized (this)
+			{
+				output.writeInt(FILE_MAGIC);
+				output.writeInt(FILE_VERSION);
+				output.writeInt(entries.size());
+				for (Map.Entry<Long, Integer> entry : entries.entrySet())
+				{
+					output.writeLong(entry.getKey());
+					output.writeInt(entry.getValue());
+				}
+			}
+			output.flush();
+			channel.force(false);
+		}
+		Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Looks up a state and counts the lookup as a hit or a miss.
+	 *
+	 * @param packedState The packed state.
+	 * @return The payload of the state, read with {@link #distanceOf(int)} and {@link #firstMoveOf(int)}, or {@link #ABSENT}.
+	 */
+	public int get(long packedState)
+	{
+		Integer payload;
+		synchronized (this)
+		{
+			payload = entries.get(packedState);
+		}
+		if (payload == null)
+		{
+			misses.incrementAndGet();
+			return ABSENT;
+		}
+		hits.incrementAndGet();
+		return payload;
+	}
+
+	/**
+	 * @param node A node.
+	 * @return The payload of the state of the node, or {@link #ABSENT} if it is not cached or the node has no packed state.
+	 */
+	public int get(AbstractSearchNode node)
+	{
+		return node.hasPackedState() ? get(node.getPackedState()) : ABSENT;
+	}
+
+	/**
+	 * Stores the optimal distance of a state, replacing what was stored for it before.
+	 *
+	 * @param packedState The packed state.
+	 * @param distance    The number of moves on an optimal path from the state to the goal.
+	 * @param firstMove   The first move of that path, or -1 if the state is a goal state.
+	 */
+	public synchronized void put(long packedState, int distance, int firstMove)
+	{
+		entries.put(packedState, distance << 8 | (firstMove & NO_MOVE));
+	}
+
+	/**
+	 * Stores every state on an optimal path found by a search, with its distance to the goal node and the move that follows it on the path.
+	 * Nodes without packed states or numbered moves end the recording.
+	 *
+	 * @param goalNode The goal node at the end of the optimal path.
+	 */
+	public void record(AbstractSearchNode goalNode)
+	{
+		int goalDepth = goalNode.getNodeDepth();
+		int nextMove = -1;
+		for (AbstractSearchNode node = goalNode; node != null && node.hasPackedState(); node = node.getParentNode())
+		{
+			put(node.getPackedState(), goalDepth - node.getNodeDepth(), nextMove);
+			nextMove = node.getLastMove();
+			if (nextMove < 0 || node.getNodeDepth() == 0)
+			{
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Follows the cached first moves from a node to the goal, creating the nodes on the way.
+	 * This does not count as a hit or a miss.
+	 *
+	 * @param node A node that supports in place moves.
+	 * @return The goal node at the end of the cached path, or null if the node or a state on its path is not cached.
+	 */
+	AbstractSearchNode followPath(AbstractSearchNode node)
+	{
+		if (!node.hasPackedState() || !node.supportsInPlaceMoves())
+		{
+			return null;
+		}
+		Integer payload;
+		synchronized (this)
+		{
+			payload = entries.get(node.getPackedState());
+			while (payload != null && distanceOf(payload) > 0)
+			{
+				int distance = distanceOf(payload);
+				int move = firstMoveOf(payload);
+				node = move < 0 ? null : node.createChildNode(move);
+				payload = node == null ? null : entries.get(node.getPackedState());
+				if (payload != null && distanceOf(payload) != distance - 1)
+				{
+					// the entries were recorded from different paths that do not join up
+					payload = null;
+				}
+			}
+		}
+		return payload == null ? null : node;
+	}
+
+	/**
+	 * @param payload A payload returned by {@link #get(long)}.
+	 * @return The optimal distance of the state to the goal.
+	 */
+	public static int distanceOf(int payload)
+	{
+		return payload >>> 8;
+	}
+
+	/**
+	 * @param payload A payload returned by {@link #get(long)}.
+	 * @return The first move of an optimal path from the state, or -1 if the state is a goal state.
+	 */
+	public static int firstMoveOf(int payload)
+	{
+		int move = payload & NO_MOVE;
+		return move == NO_MOVE ? -1 : move;
+	}
+
+	public long getHits()
+	{
+		return hits.get();
+	}
+
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	public synchronized int size()
+	{
+		return entries.size();
+	}
+
+	public int getMaxEntries()
+	{
+		return maxEntries;
+	}
+
+	/**
+	 * Removes every entry and resets the hit and miss counters.
+	 */
+	public synchronized void clear()
+	{
+		entries.clear();
+		hits.set(0);
+		misses.set(0);
+	}
+}
@@ -0,0 +1,35 @@
+package AISearch;
+
+/**
+ * Wraps a search node so that it can be used as a key of the standard collections,
+ * with {@link AbstractSearchNode#stateHash()} as its hash code and {@link AbstractSearchNode#equalsNode(AbstractSearchNode)} as its equality.
+ * Single threaded searches use {@link NodeHashMap} instead, which does not need a wrapper per lookup.
+ */
+final class StateKey
+{
+	private final AbstractSearchNode node;
+	private final int hash;
+
+	StateKey(AbstractSearchNode node)
+	{
+		this.node = node;
+		this.hash = node.stateHash();
+	}
+
+	AbstractSearchNode getNode()
+	{
+		return node;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object other)
+	{
+		return other instanceof StateKey key && hash == key.hash && node.equalsNode(key.node);
+	}
+}
@@ -0,0 +1,93 @@
+package SlidingTilePuzzle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The sum of pattern databases over disjoint sets of tiles, such as a 7-8 or 6-6-3 partition of the 15-puzzle.
+ * Each database only counts moves of its own tiles, so the sum never overestimates the number of moves needed.
+ */
+public class AdditivePatternDatabase implements PuzzleHeuristic
+{
+	private final PatternDatabase[] patternDatabases;
+
+	/**
+	 * @param patternDatabases Databases for the same side length with no tile in more than one of them.
+	 * @throws IllegalArgumentException If the databases are for different boards or share a tile.
+	 */
+	public AdditivePatternDatabase(PatternDatabase... patternDatabases) throws IllegalArgumentException
+	{
+		if (patternDatabases.length == 0)
+		{
+			throw new IllegalArgumentException("At least one pattern database is required.");
+		}
+		int sideLength = patternDatabases[0].getSideLength();
+		boolean[] usedTiles = new boolean[sideLength * sideLength];
+		for (PatternDatabase patternDatabase : patternDatabases)
+		{
+			if (patternDatabase.getSideLength() != sideLength)
+			{
+				throw new IllegalArgumentException("Pattern databases must all be for the same side length.");
+			}
+			for (int tile : patternDatabase.getPatternTiles())
+			{
+				if (usedTiles[tile])
+				{
+					throw new IllegalArgumentException("Tile " + tile + " is in more than one pattern database.");
+				}
+				usedTiles[tile] = true;
+			}
+		}
+		this.patternDatabases = patternDatabases.clone();
+	}
+
+	/**
+	 * Builds a database for every set of tiles in a partition.
+	 *
+	 * @param sideLength The side length of the board.
+	 * @param partition  The disjoint sets of tiles.
+	 * @return The additive database.
+	 */
+	public static AdditivePatternDatabase build(int sideLength, int[]... partition)
+	{
+		PatternDatabase[] patternDatabases = new PatternDatabase[partition.length];
+		for (int i = 0; i < partition.length; i++)
+		{
+			patternDatabases[i] = PatternDatabase.build(sideLength, partition[i]);
+		}
+		return new AdditivePatternDatabase(patternDatabases);
+	}
+
+	/**
+	 * Maps every file into memory.
+	 *
+	 * @param files The files of the databases in the partition.
+	 * @return The additive database.
+	 * @throws IOException If a file could not be read or is not a pattern database.
+	 */
+	public static AdditivePatternDatabase load(Path... files) throws IOException
+	{
+		PatternDatabase[] patternDatabases = new PatternDatabase[files.length];
+		for (int i = 0; i < files.length; i++)
+		{
+			patternDatabases[i] = PatternDatabase.load(files[i]);
+		}
+		return new AdditivePatternDatabase(patternDatabases);
+	}
+
+	public PatternDatabase[] getPatternDatabases()
+	{
+		return patternDatabases.clone();
+	}
+
+	@Override
+	public int evaluate(Puzzle puzzle)
+	{
+		int heuristicValue = 0;
+		for (PatternDatabase patternDatabase : patternDatabases)
+		{
+			heuristicValue += patternDatabase.evaluate(puzzle);
+		}
+		return heuristicValue;
+	}
+}
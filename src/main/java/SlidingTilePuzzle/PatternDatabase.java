@@ -0,0 +1,459 @@
+package SlidingTilePuzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A pattern database for a subset of the tiles of a sliding tile puzzle.
+ * For every placement of the pattern tiles it stores the number of moves of pattern tiles needed to bring them to their goal cells.
+ * Moves of the other tiles are not counted, so the databases of disjoint patterns can be added together and stay admissible.
+ * <p>
+ * A placement is ranked by a perfect hash of the cells holding the pattern tiles, in pattern order, so a lookup does not allocate.
+ * Databases are built with a breadth first search backwards from the goal, saved to a compact file and loaded by mapping the file into memory,
+ * which lets every process on a host share the same pages.
+ * <p>
+ * The file starts with a header of big endian ints: a magic number, the format version, the side length of the board,
+ * the number of bits per entry (4 or 8), the number of pattern tiles and then the tiles themselves,
+ * followed by a long holding the number of entries and the entries packed in rank order.
+ */
+public class PatternDatabase implements PuzzleHeuristic
+{
+	private static final int MAGIC = 0x50444231;
+	private static final int VERSION = 1;
+	private static final int MAX_CELLS = 64;
+	private static final int MAX_PATTERN_TILES = 10;
+	private static final int POSITION_BITS = 6;
+	private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+	private static final int UNKNOWN = 0xFF;
+
+	private final int sideLength;
+	private final int cellCount;
+	private final int[] patternTiles;
+	private final byte[] slotOfTile;
+	private final long[] placeValues;
+	private final int bitsPerEntry;
+	private final ByteBuffer entries;
+
+	private PatternDatabase(int sideLength, int[] patternTiles, int bitsPerEntry, ByteBuffer entries)
+	{
+		this.sideLength = sideLength;
+		this.cellCount = sideLength * sideLength;
+		this.patternTiles = patternTiles.clone();
+		this.slotOfTile = new byte[cellCount];
+		Arrays.fill(slotOfTile, (byte) -1);
+		for (int slot = 0; slot < patternTiles.length; slot++)
+		{
+			slotOfTile[patternTiles[slot]] = (byte) slot;
+		}
+		this.placeValues = placeValues(cellCount, patternTiles.length);
+		this.bitsPerEntry = bitsPerEntry;
+		this.entries = entries;
+	}
+
+	private static void validate(int sideLength, int[] patternTiles)
+	{
+		int cellCount = sideLength * sideLength;
+		if (sideLength < 2 || cellCount > MAX_CELLS)
+		{
+			throw new IllegalArgumentException(String.format("A side length of %d is not supported. Expected 2 to 8.", sideLength));
+		}
+		if (patternTiles.length < 1 || patternTiles.length > MAX_PATTERN_TILES)
+		{
+			throw new IllegalArgumentException(String.format("A pattern of %d tiles is not supported. Expected 1 to %d.", patternTiles.length, MAX_PATTERN_TILES));
+		}
+		boolean[] seen = new boolean[cellCount];
+		for (int tile : patternTiles)
+		{
+			if (tile < 1 || tile >= cellCount || seen[tile])
+			{
+				throw new IllegalArgumentException("Pattern tiles must be distinct tiles of the board: " + Arrays.toString(patternTiles));
+			}
+			seen[tile] = true;
+		}
+	}
+
+	/**
+	 * The rank of a placement is a number in a mixed radix system where the digit of the i-th tile is its cell
+	 * counted among the cells not taken by the earlier tiles. The place value of that digit is the number of ways
+	 * to place the remaining tiles, the last tile having a place value of 1.
+	 * The place value of the i-th tile is at index i + 1 and index 0 holds the total number of placements.
+	 */
+	private static long[] placeValues(int cellCount, int tileCount)
+	{
+		long[] values = new long[tileCount + 1];
+		values[tileCount] = 1;
+		for (int i = tileCount - 1; i >= 0; i--)
+		{
+			values[i] = values[i + 1] * (cellCount - i);
+		}
+		return values;
+	}
+
+	/**
+	 * Builds a database by searching backwards from the goal over placements of the pattern tiles and the blank.
+	 * Moving a pattern tile costs one move and moving any other tile is free, so the search runs in layers of equal cost
+	 * and every layer is closed under free moves before the next is started.
+	 *
+	 * @param sideLength   The side length of the board.
+	 * @param patternTiles The tiles of the pattern.
+	 * @return The database, held in memory.
+	 * @throws IllegalArgumentException If the board or pattern is not supported.
+	 */
+	public static PatternDatabase build(int sideLength, int... patternTiles) throws IllegalArgumentException
+	{
+		validate(sideLength, patternTiles);
+		int cellCount = sideLength * sideLength;
+		int tileCount = patternTiles.length;
+		long[] placeValues = placeValues(cellCount, tileCount);
+		long placements = placeValues[0];
+		if (placements > Integer.MAX_VALUE)
+		{
+			throw new IllegalArgumentException("The pattern has too many placements to build in memory: " + placements);
+		}
+		byte[] distances = new byte[(int) placements];
+		Arrays.fill(distances, (byte) UNKNOWN);
+		long[] visited = new long[(int) ((placements * cellCount + 63) >>> 6)];
+		int[] positions = new int[tileCount];
+		int[] tileInCell = new int[cellCount];
+
+		for (int slot = 0; slot < tileCount; slot++)
+		{
+			positions[slot] = patternTiles[slot] - 1;
+		}
+		LongQueue current = new LongQueue();
+		LongQueue next = new LongQueue();
+		current.add((long) rank(positions, placeValues) * cellCount + cellCount - 1);
+		for (int distance = 0; !current.isEmpty(); distance++)
+		{
+			if (distance >= UNKNOWN)
+			{
+				throw new IllegalStateException("Pattern distances do not fit in a byte.");
+			}
+			while (!current.isEmpty())
+			{
+				long state = current.poll();
+				if ((visited[(int) (state >>> 6)] & (1L << state)) != 0)
+				{
+					continue;
+				}
+				visited[(int) (state >>> 6)] |= 1L << state;
+				int rank = (int) (state / cellCount);
+				int blank = (int) (state % cellCount);
+				if ((distances[rank] & 0xFF) == UNKNOWN)
+				{
+					distances[rank] = (byte) distance;
+				}
+				unrank(rank, positions, placeValues);
+				Arrays.fill(tileInCell, -1);
+				for (int slot = 0; slot < tileCount; slot++)
+				{
+					tileInCell[positions[slot]] = slot;
+				}
+				for (int neighbour : neighbours(blank, sideLength))
+				{
+					if (neighbour < 0)
+					{
+						continue;
+					}
+					int slot = tileInCell[neighbour];
+					if (slot < 0)
+					{
+						long nextState = (long) rank * cellCount + neighbour;
+						if ((visited[(int) (nextState >>> 6)] & (1L << nextState)) == 0)
+						{
+							current.add(nextState);
+						}
+					} else
+					{
+						positions[slot] = blank;
+						long nextState = (long) rank(positions, placeValues) * cellCount + neighbour;
+						positions[slot] = neighbour;
+						if ((visited[(int) (nextState >>> 6)] & (1L << nextState)) == 0)
+						{
+							next.add(nextState);
+						}
+					}
+				}
+			}
+			LongQueue swap = current;
+			current = next;
+			next = swap;
+		}
+
+		int maxDistance = 0;
+		for (byte distance : distances)
+		{
+			maxDistance = Math.max(maxDistance, distance & 0xFF);
+		}
+		int bitsPerEntry = maxDistance < 16 ? 4 : 8;
+		ByteBuffer entries = ByteBuffer.wrap(packEntries(distances, bitsPerEntry));
+		return new PatternDatabase(sideLength, patternTiles, bitsPerEntry, entries);
+	}
+
+	private static int[] neighbours(int cell, int sideLength)
+	{
+		int row = cell / sideLength;
+		int column = cell % sideLength;
+		return new int[]{
+				row > 0 ? cell - sideLength : -1,
+				row < sideLength - 1 ? cell + sideLength : -1,
+				column > 0 ? cell - 1 : -1,
+				column < sideLength - 1 ? cell + 1 : -1
+		};
+	}
+
+	private static byte[] packEntries(byte[] distances, int bitsPerEntry)
+	{
+		if (bitsPerEntry == 8)
+		{
+			return distances;
+		}
+		byte[] packed = new byte[(distances.length + 1) >>> 1];
+		for (int i = 0; i < distances.length; i++)
+		{
+			packed[i >>> 1] |= (byte) ((distances[i] & 0xF) << ((i & 1) << 2));
+		}
+		return packed;
+	}
+
+	private static int rank(int[] positions, long[] placeValues)
+	{
+		long used = 0;
+		long rank = 0;
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			int position = positions[slot];
+			rank += (position - Long.bitCount(used & ((1L << position) - 1))) * placeValues[slot + 1];
+			used |= 1L << position;
+		}
+		return (int) rank;
+	}
+
+	private static void unrank(int rank, int[] positions, long[] placeValues)
+	{
+		long used = 0;
+		long remainder = rank;
+		for (int slot = 0; slot < positions.length; slot++)
+		{
+			int digit = (int) (remainder / placeValues[slot + 1]);
+			remainder %= placeValues[slot + 1];
+			int position = -1;
+			// the digit counts free cells, so step over the cells taken by earlier tiles
+			for (int free = -1; free < digit; )
+			{
+				position++;
+				if ((used & (1L << position)) == 0)
+				{
+					free++;
+				}
+			}
+			positions[slot] = position;
+			used |= 1L << position;
+		}
+	}
+
+	/**
+	 * Looks up the number of pattern tile moves needed to solve the puzzle.
+	 * The cells of the pattern tiles are collected in a single long, so the lookup does not allocate.
+	 *
+	 * @param puzzle A puzzle with the side length of this database.
+	 * @return The number of moves.
+	 */
+	@Override
+	public int evaluate(Puzzle puzzle)
+	{
+		long packedPositions = 0;
+		for (int cell = 0; cell < cellCount; cell++)
+		{
+			int tile = puzzle.getTileAt(cell);
+			if (tile != 0 && slotOfTile[tile] >= 0)
+			{
+				packedPositions |= (long) cell << (slotOfTile[tile] * POSITION_BITS);
+			}
+		}
+		long used = 0;
+		long rank = 0;
+		for (int slot = 0; slot < patternTiles.length; slot++)
+		{
+			int position = (int) ((packedPositions >>> (slot * POSITION_BITS)) & POSITION_MASK);
+			rank += (position - Long.bitCount(used & ((1L << position) - 1))) * placeValues[slot + 1];
+			used |= 1L << position;
+		}
+		if (bitsPerEntry == 8)
+		{
+			return entries.get((int) rank) & 0xFF;
+		}
+		return (entries.get((int) (rank >>> 1)) >>> ((rank & 1) << 2)) & 0xF;
+	}
+
+	public int getSideLength()
+	{
+		return sideLength;
+	}
+
+	public int[] getPatternTiles()
+	{
+		return patternTiles.clone();
+	}
+
+	/**
+	 * @return The number of placements of the pattern tiles, which is the number of entries in the database.
+	 */
+	public long getPlacementCount()
+	{
+		return placeValues[0];
+	}
+
+	public int getBitsPerEntry()
+	{
+		return bitsPerEntry;
+	}
+
+	private int headerSize()
+	{
+		return Integer.BYTES * (5 + patternTiles.length) + Long.BYTES;
+	}
+
+	/**
+	 * Writes the database to a file, replacing any existing file.
+	 *
+	 * @param file The file to write.
+	 * @throws IOException If the file could not be written.
+	 */
+	public void save(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer header = ByteBuffer.allocate(headerSize()).order(ByteOrder.BIG_ENDIAN);
+			header.putInt(MAGIC).putInt(VERSION).putInt(sideLength).putInt(bitsPerEntry).putInt(patternTiles.length);
+			for (int tile : patternTiles)
+			{
+				header.putInt(tile);
+			}
+			header.putLong(placeValues[0]);
+			header.flip();
+			while (header.hasRemaining())
+			{
+				channel.write(header);
+			}
+			ByteBuffer body = entries.duplicate();
+			body.clear();
+			while (body.hasRemaining())
+			{
+				channel.write(body);
+			}
+		}
+	}
+
+	/**
+	 * Maps a database file into memory. The pages are read lazily and shared with every other process that maps the same file.
+	 *
+	 * @param file The file to load.
+	 * @return The database.
+	 * @throws IOException If the file could not be read or is not a pattern database.
+	 */
+	public static PatternDatabase load(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer fixedHeader = ByteBuffer.allocate(Integer.BYTES * 5);
+			readFully(channel, fixedHeader, 0);
+			fixedHeader.flip();
+			if (fixedHeader.getInt() != MAGIC || fixedHeader.getInt() != VERSION)
+			{
+				throw new IOException("Not a pattern database file: " + file);
+			}
+			int sideLength = fixedHeader.getInt();
+			int bitsPerEntry = fixedHeader.getInt();
+			int tileCount = fixedHeader.getInt();
+			if (tileCount < 1 || tileCount > MAX_PATTERN_TILES || (bitsPerEntry != 4 && bitsPerEntry != 8))
+			{
+				throw new IOException("Corrupt pattern database header: " + file);
+			}
+			ByteBuffer patternHeader = ByteBuffer.allocate(Integer.BYTES * tileCount + Long.BYTES);
+			readFully(channel, patternHeader, fixedHeader.capacity());
+			patternHeader.flip();
+			int[] patternTiles = new int[tileCount];
+			for (int slot = 0; slot < tileCount; slot++)
+			{
+				patternTiles[slot] = patternHeader.getInt();
+			}
+			long placements = patternHeader.getLong();
+			try
+			{
+				validate(sideLength, patternTiles);
+			} catch (IllegalArgumentException e)
+			{
+				throw new IOException("Corrupt pattern database header: " + file, e);
+			}
+			long bodySize = bitsPerEntry == 8 ? placements : (placements + 1) >>> 1;
+			long offset = fixedHeader.capacity() + patternHeader.capacity();
+			if (placements != placeValues(sideLength * sideLength, tileCount)[0] || channel.size() != offset + bodySize)
+			{
+				throw new IOException("Pattern database file has the wrong size: " + file);
+			}
+			MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, offset, bodySize);
+			return new PatternDatabase(sideLength, patternTiles, bitsPerEntry, entries);
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			if (channel.read(buffer, position + buffer.position()) < 0)
+			{
+				throw new IOException("Unexpected end of pattern database file.");
+			}
+		}
+	}
+
+	/**
+	 * A growable queue of longs used while building a database.
+	 */
+	private static class LongQueue
+	{
+		private long[] values = new long[1024];
+		private int head;
+		private int tail;
+
+		boolean isEmpty()
+		{
+			return head == tail;
+		}
+
+		void add(long value)
+		{
+			if (tail == values.length)
+			{
+				if (head >= values.length >>> 1)
+				{
+					System.arraycopy(values, head, values, 0, tail - head);
+					tail -= head;
+					head = 0;
+				} else
+				{
+					values = Arrays.copyOf(values, values.length << 1);
+				}
+			}
+			values[tail++] = value;
+		}
+
+		long poll()
+		{
+			long value = values[head++];
+			if (head == tail)
+			{
+				head = 0;
+				tail = 0;
+			}
+			return value;
+		}
+	}
+}
@@ -1,50 +1,192 @@
 package SlidingTilePuzzle;
 
 import AISearch.AbstractSearchNode;
+import AISearch.BidirectionalSearchNode;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.function.Consumer;
 
-public class Puzzle extends AbstractSearchNode
+/**
+ * A sliding tile puzzle with tiles numbered from 1 and a blank tile numbered 0.
+ * The goal state has the tiles in order, row by row, with the blank in the bottom right corner.
+ * <p>
+ * Cells are numbered row by row from 0. Boards with a side length of up to 4 are packed into a single long
+ * with 4 bits per cell, larger boards keep one byte per cell. The index of the blank cell is cached.
+ * <p>
+ * The heuristic is the Manhattan distance of the tiles, optionally plus their linear conflicts.
+ * It is calculated once for a root node and then updated from the moved tile on every move.
+ * A {@link PuzzleHeuristic} such as a pattern database can be set to replace it.
+ */
+public class Puzzle extends AbstractSearchNode implements BidirectionalSearchNode
 {
+	/**
+	 * The moves of the blank tile, numbered so that every move is reverted by the move with its lowest bit flipped.
+	 */
+	public static final int UP = 0;
+	public static final int DOWN = 1;
+	public static final int LEFT = 2;
+	public static final int RIGHT = 3;
+
+	/**
+	 * The largest side length that fits 4 bits per cell into a long.
+	 */
+	private static final int MAX_PACKED_SIDE_LENGTH = 4;
+	private static final int MAX_SIDE_LENGTH = 16;
+	private static final long[] PACKED_GOAL_STATES = new long[MAX_PACKED_SIDE_LENGTH + 1];
+
+	static
+	{
+		for (int side = 1; side <= MAX_PACKED_SIDE_LENGTH; side++)
+		{
+			long goal = 0;
+			for (int cell = 0; cell < side * side - 1; cell++)
+			{
+				goal |= (long) (cell + 1) << (cell << 2);
+			}
+			PACKED_GOAL_STATES[side] = goal;
+		}
+	}
 
-	private int[][] grid;
 	private final int sideLength;
+	private final int cellCount;
+	private long packedTiles;
+	private final byte[] tiles;
+	private int blankIndex;
+	private int manhattanDistance;
+	private boolean linearConflictEnabled;
+	private int linearConflict;
+	private PuzzleHeuristic heuristic;
+	private int lastMove = -1;
 
 	public Puzzle(int sideLength)
 	{
-		super();
-		this.sideLength = sideLength;
-		this.grid = getNewGrid();
-
-		shuffleGrid();
+		this(sideLength, (int) Math.pow(sideLength, 3));
 	}
 
 	public Puzzle(int sideLength, int shuffleMoves)
+	{
+		this(sideLength, shuffleMoves, new Random());
+	}
+
+	/**
+	 * Constructs a puzzle shuffled by a random walk that is the same every time for the same seed,
+	 * so that the instances used by tests and benchmarks can be reproduced.
+	 *
+	 * @param sideLength   The number of cells along each side.
+	 * @param shuffleMoves The number of random moves made from the goal state.
+	 * @param seed         The seed of the random moves.
+	 */
+	public Puzzle(int sideLength, int shuffleMoves, long seed)
+	{
+		this(sideLength, shuffleMoves, new Random(seed));
+	}
+
+	private Puzzle(int sideLength, int shuffleMoves, Random random)
 	{
 		super();
+		if (sideLength < 1 || sideLength > MAX_SIDE_LENGTH)
+		{
+			throw new IllegalArgumentException(String.format("A side length of %d is not supported. Expected 1 to %d.", sideLength, MAX_SIDE_LENGTH));
+		}
 		this.sideLength = sideLength;
-		this.grid = getNewGrid();
+		this.cellCount = sideLength * sideLength;
+		this.tiles = isPacked() ? null : new byte[cellCount];
+		resetGrid();
 
-		shuffleGrid(shuffleMoves);
+		shuffleGrid(shuffleMoves, random);
 	}
 
-	private Puzzle(Puzzle parentNode, int[][] grid)
+	private Puzzle(Puzzle sourceNode)
+	{
+		super();
+		this.sideLength = sourceNode.sideLength;
+		this.cellCount = sourceNode.cellCount;
+		this.packedTiles = sourceNode.packedTiles;
+		this.tiles = sourceNode.tiles == null ? null : sourceNode.tiles.clone();
+		this.blankIndex = sourceNode.blankIndex;
+		this.manhattanDistance = sourceNode.manhattanDistance;
+		this.linearConflictEnabled = sourceNode.linearConflictEnabled;
+		this.linearConflict = sourceNode.linearConflict;
+		this.heuristic = sourceNode.heuristic;
+	}
+
+	private Puzzle(Puzzle parentNode, int move)
 	{
 		super(parentNode);
-		this.sideLength = parentNode.getSideLength();
-		this.grid = grid;
+		this.sideLength = parentNode.sideLength;
+		this.cellCount = parentNode.cellCount;
+		this.packedTiles = parentNode.packedTiles;
+		this.tiles = parentNode.tiles == null ? null : parentNode.tiles.clone();
+		this.blankIndex = parentNode.blankIndex;
+		this.manhattanDistance = parentNode.manhattanDistance;
+		this.linearConflictEnabled = parentNode.linearConflictEnabled;
+		this.linearConflict = parentNode.linearConflict;
+		this.heuristic = parentNode.heuristic;
+		if (applyMove(move))
+		{
+			this.lastMove = move;
+		}
 	}
 
+	private boolean isPacked()
+	{
+		return sideLength <= MAX_PACKED_SIDE_LENGTH;
+	}
+
+	private int tileAt(int cell)
+	{
+		return tiles == null ? (int) (packedTiles >>> (cell << 2)) & 0xF : tiles[cell] & 0xFF;
+	}
+
+	/**
+	 * @param cell The index of a cell, counting row by row from 0.
+	 * @return The tile in the cell, 0 for the blank.
+	 */
+	public int getTileAt(int cell)
+	{
+		return tileAt(cell);
+	}
+
+	/**
+	 * Decodes the packed state into a new grid. Changing the returned grid does not change the puzzle.
+	 *
+	 * @return The tiles of the puzzle indexed by row then column.
+	 */
 	public int[][] getGrid()
 	{
+		int[][] grid = new int[sideLength][sideLength];
+		for (int cell = 0; cell < cellCount; cell++)
+		{
+			grid[cell / sideLength][cell % sideLength] = tileAt(cell);
+		}
 		return grid;
 	}
 
+	/**
+	 * @param grid The tiles of the puzzle indexed by row then column.
+	 */
 	public void setGrid(int[][] grid)
 	{
-		this.grid = grid;
+		long packed = 0;
+		for (int cell = 0; cell < cellCount; cell++)
+		{
+			int tile = grid[cell / sideLength][cell % sideLength];
+			if (tile == 0)
+			{
+				this.blankIndex = cell;
+			}
+			if (tiles == null)
+			{
+				packed |= (long) tile << (cell << 2);
+			} else
+			{
+				tiles[cell] = (byte) tile;
+			}
+		}
+		this.packedTiles = packed;
+		recalculateHeuristic();
 	}
 
 	public int getSideLength()
@@ -52,25 +194,62 @@ public class Puzzle extends AbstractSearchNode
 		return sideLength;
 	}
 
-	public void resetGrid()
+	public int getCellCount()
 	{
-		this.grid = getNewGrid();
+		return cellCount;
 	}
 
-	private int[][] getNewGrid()
+	public void resetGrid()
 	{
-		int[][] newGrid = new int[sideLength][sideLength];
-		int currentNum = 1;
-		for (int i = 0; i < sideLength; i++)
+		if (tiles == null)
 		{
-			for (int j = 0; j < sideLength; j++)
+			this.packedTiles = PACKED_GOAL_STATES[sideLength];
+		} else
+		{
+			for (int cell = 0; cell < cellCount - 1; cell++)
 			{
-				newGrid[i][j] = currentNum;
-				currentNum++;
+				tiles[cell] = (byte) (cell + 1);
 			}
+			tiles[cellCount - 1] = 0;
 		}
-		newGrid[sideLength - 1][sideLength - 1] = 0;
-		return newGrid;
+		this.blankIndex = cellCount - 1;
+		this.manhattanDistance = 0;
+		this.linearConflict = 0;
+		invalidateHeuristicValue();
+	}
+
+	public boolean isLinearConflictEnabled()
+	{
+		return linearConflictEnabled;
+	}
+
+	/**
+	 * Sets whether linear conflicts are added to the Manhattan distance heuristic.
+	 * Two tiles are in linear conflict if they are in their goal row or column but in the wrong order,
+	 * so one of them has to leave the line and come back. Child nodes inherit the setting.
+	 *
+	 * @param linearConflictEnabled True to add linear conflicts to the heuristic.
+	 */
+	public void setLinearConflictEnabled(boolean linearConflictEnabled)
+	{
+		this.linearConflictEnabled = linearConflictEnabled;
+		recalculateHeuristic();
+	}
+
+	public PuzzleHeuristic getHeuristic()
+	{
+		return heuristic;
+	}
+
+	/**
+	 * Sets a heuristic to use instead of the Manhattan distance. Child nodes inherit the heuristic.
+	 *
+	 * @param heuristic The heuristic or null to use the Manhattan distance.
+	 */
+	public void setHeuristic(PuzzleHeuristic heuristic)
+	{
+		this.heuristic = heuristic;
+		invalidateHeuristicValue();
 	}
 
 	public void shuffleGrid()
@@ -80,170 +259,410 @@ public class Puzzle extends AbstractSearchNode
 	}
 
 	public void shuffleGrid(int numMoves)
+	{
+		shuffleGrid(numMoves, new Random());
+	}
+
+	public void shuffleGrid(int numMoves, Random random)
 	{
 		//System.out.printf("Shuffling %s moves.%n", numMoves);
-		Random random = new Random();
 		for (int i = 0; i < numMoves; i++)
 		{
-			switch (random.nextInt(4))
+			applyMove(random.nextInt(4));
+		}
+		invalidateHeuristicValue();
+	}
+
+	/**
+	 * Checks the parity of the board, which no move can change, against the parity of the goal state.
+	 * Reading the tiles row by row without the blank, a move along a row changes nothing and a move along a column
+	 * passes one tile over the other side length minus one, so for odd side lengths the number of inversions must be even,
+	 * and for even side lengths the number of inversions plus the row of the blank counted from the bottom, starting at 1, must be odd.
+	 * The inversions are counted with a Fenwick tree over the tile numbers in O(n log n) time.
+	 *
+	 * @return True if the goal state can be reached from this board.
+	 */
+	@Override
+	public boolean isSolvable()
+	{
+		int[] counts = new int[cellCount];
+		long inversions = 0;
+		int seenTiles = 0;
+		for (int cell = 0; cell < cellCount; cell++)
+		{
+			int tile = tileAt(cell);
+			if (tile == 0)
+			{
+				continue;
+			}
+			int smallerTiles = 0;
+			for (int i = tile; i > 0; i -= i & -i)
 			{
-				case 0 -> this.grid = moveBlankUp();
-				case 1 -> this.grid = moveBlankDown();
-				case 2 -> this.grid = moveBlankLeft();
-				case 3 -> this.grid = moveBlankRight();
+				smallerTiles += counts[i];
 			}
+			inversions += seenTiles - smallerTiles;
+			for (int i = tile; i < cellCount; i += i & -i)
+			{
+				counts[i]++;
+			}
+			seenTiles++;
+		}
+		if (sideLength % 2 == 1)
+		{
+			return inversions % 2 == 0;
 		}
+		int blankRowFromBottom = sideLength - blankIndex / sideLength;
+		return (inversions + blankRowFromBottom) % 2 == 1;
 	}
 
+	/**
+	 * @return True if the goal state can be reached from this board.
+	 * @deprecated Use {@link #isSolvable()}.
+	 */
+	@Deprecated
 	public boolean solutionPossible()
 	{
-		int permutationInversions = 0;
-		for (int i = 2; i < Math.pow(this.sideLength, 2); i++)
+		return isSolvable();
+	}
+
+	/**
+	 * @param tile A tile that is not the blank.
+	 * @param cell A cell of the board.
+	 * @return The number of moves the tile is away from its goal cell if it is in the given cell.
+	 */
+	private int distanceToGoal(int tile, int cell)
+	{
+		int goalCell = tile - 1;
+		return Math.abs(goalCell / sideLength - cell / sideLength) + Math.abs(goalCell % sideLength - cell % sideLength);
+	}
+
+	/**
+	 * Counts the extra moves caused by tiles that are in their goal row or column but in the wrong order.
+	 * The tiles that do not have to leave the line form the longest increasing run of goal positions,
+	 * every other tile adds two moves. The run is found by patience sorting with the pile tops packed into a long.
+	 *
+	 * @param line       The index of the row or column.
+	 * @param horizontal True for a row, false for a column.
+	 * @return The linear conflict of the line.
+	 */
+	private int lineConflict(int line, boolean horizontal)
+	{
+		int tilesInLine = 0;
+		int piles = 0;
+		long pileTops = 0;
+		for (int i = 0; i < sideLength; i++)
 		{
-			int numberLessThanI = 0;
-			for (int j = 0; j < this.sideLength; j++)
+			int tile = tileAt(horizontal ? line * sideLength + i : i * sideLength + line);
+			if (tile == 0)
+			{
+				continue;
+			}
+			int goalCell = tile - 1;
+			if ((horizontal ? goalCell / sideLength : goalCell % sideLength) != line)
+			{
+				continue;
+			}
+			long goalPosition = horizontal ? goalCell % sideLength : goalCell / sideLength;
+			tilesInLine++;
+			int pile = 0;
+			while (pile < piles && ((pileTops >>> (pile << 2)) & 0xF) < goalPosition)
 			{
-				for (int k = 0; k < this.sideLength; k++)
-				{
-					if (this.grid[i][j] == i)
-					{
-						numberLessThanI = 0;
-					} else if (this.grid[i][j] < i && this.grid[i][j] != 0)
-					{
-						numberLessThanI++;
-					}
-				}
+				pile++;
+			}
+			pileTops = (pileTops & ~(0xFL << (pile << 2))) | (goalPosition << (pile << 2));
+			if (pile == piles)
+			{
+				piles++;
 			}
-			permutationInversions += numberLessThanI;
 		}
-		return permutationInversions + this.getBlankPosition()[0] % 2 == 0;
+		return 2 * (tilesInLine - piles);
 	}
 
-	private int[][] copyGrid()
+	private void recalculateHeuristic()
 	{
-		int[][] copy = new int[this.sideLength][this.sideLength];
-		for (int i = 0; i < this.sideLength; i++)
+		manhattanDistance = 0;
+		for (int cell = 0; cell < cellCount; cell++)
 		{
-			for (int j = 0; j < this.sideLength; j++)
+			int tile = tileAt(cell);
+			if (tile != 0)
 			{
-				copy[i][j] = this.getGrid()[i][j];
+				manhattanDistance += distanceToGoal(tile, cell);
+			}
+		}
+		linearConflict = 0;
+		if (linearConflictEnabled)
+		{
+			for (int line = 0; line < sideLength; line++)
+			{
+				linearConflict += lineConflict(line, true) + lineConflict(line, false);
 			}
-
 		}
-		return copy;
+		invalidateHeuristicValue();
+	}
+
+	/**
+	 * @param move A move of the blank tile.
+	 * @return The cell the blank moves into or -1 if the move would take the blank off the board.
+	 */
+	private int targetCell(int move)
+	{
+		return switch (move)
+		{
+			case UP -> blankIndex >= sideLength ? blankIndex - sideLength : -1;
+			case DOWN -> blankIndex < cellCount - sideLength ? blankIndex + sideLength : -1;
+			case LEFT -> blankIndex % sideLength != 0 ? blankIndex - 1 : -1;
+			case RIGHT -> blankIndex % sideLength != sideLength - 1 ? blankIndex + 1 : -1;
+			default -> throw new IllegalArgumentException("Unknown move: " + move);
+		};
+	}
+
+	private int[][] gridAfterMove(int move)
+	{
+		Puzzle moved = new Puzzle(this);
+		moved.applyMove(move);
+		return moved.getGrid();
 	}
 
-	private int[] getBlankPosition()
+	public int[][] moveBlankUp()
 	{
-		return getPositionOf(0);
+		return gridAfterMove(UP);
 	}
 
-	private int[] getPositionOf(int val)
+	public int[][] moveBlankDown()
 	{
-		int[] pos = new int[2];
-		for (int i = 0; i < grid.length; i++)
+		return gridAfterMove(DOWN);
+	}
+
+	public int[][] moveBlankLeft()
+	{
+		return gridAfterMove(LEFT);
+	}
+
+	public int[][] moveBlankRight()
+	{
+		return gridAfterMove(RIGHT);
+	}
+
+	@Override
+	public boolean inGoalState()
+	{
+		if (blankIndex != cellCount - 1)
+		{
+			return false;
+		}
+		if (tiles == null)
 		{
-			for (int j = 0; j < grid[i].length; j++)
+			return packedTiles == PACKED_GOAL_STATES[sideLength];
+		}
+		for (int cell = 0; cell < cellCount - 1; cell++)
+		{
+			if (tiles[cell] != (byte) (cell + 1))
 			{
-				if (grid[i][j] == val)
-				{
-					pos[0] = i;
-					pos[1] = j;
-				}
+				return false;
 			}
 		}
-		return pos;
+		return true;
 	}
 
-	public int[][] moveBlankUp()
+	@Override
+	public ArrayList<AbstractSearchNode> generateChildNodes()
 	{
-		int[][] newGrid = copyGrid();
-		int[] blankPos = getBlankPosition();
-		if (!(blankPos[0] == 0))
+		ArrayList<AbstractSearchNode> newPuzzles = new ArrayList<>(4);
+		for (int move = UP; move <= RIGHT; move++)
 		{
-			newGrid[blankPos[0]][blankPos[1]] = newGrid[blankPos[0] - 1][blankPos[1]];
-			newGrid[blankPos[0] - 1][blankPos[1]] = 0;
+			newPuzzles.add(new Puzzle(this, move));
 		}
-		return newGrid;
+		return newPuzzles;
 	}
 
-	public int[][] moveBlankDown()
+	/**
+	 * Creates only the children reached by legal moves, skipping the move that would return to the parent state.
+	 *
+	 * @param consumer Receives each child node.
+	 */
+	@Override
+	public void forEachChildNode(Consumer<? super AbstractSearchNode> consumer)
 	{
-		int[][] newGrid = copyGrid();
-		int[] blankPos = getBlankPosition();
-		if (!(blankPos[0] == this.sideLength - 1))
+		for (int move = UP; move <= RIGHT; move++)
 		{
-			newGrid[blankPos[0]][blankPos[1]] = newGrid[blankPos[0] + 1][blankPos[1]];
-			newGrid[blankPos[0] + 1][blankPos[1]] = 0;
+			if ((lastMove < 0 || move != getInverseMove(lastMove)) && targetCell(move) >= 0)
+			{
+				consumer.accept(new Puzzle(this, move));
+			}
 		}
-		return newGrid;
 	}
 
-	public int[][] moveBlankLeft()
+	@Override
+	public Puzzle createGoalNode()
 	{
-		int[][] newGrid = copyGrid();
-		int[] blankPos = getBlankPosition();
-		if (!(blankPos[1] == 0))
-		{
-			newGrid[blankPos[0]][blankPos[1]] = newGrid[blankPos[0]][blankPos[1] - 1];
-			newGrid[blankPos[0]][blankPos[1] - 1] = 0;
-		}
-		return newGrid;
+		Puzzle goalNode = new Puzzle(this);
+		goalNode.resetGrid();
+		return goalNode;
 	}
 
-	public int[][] moveBlankRight()
+	/**
+	 * Every move of the blank can be reverted, so the predecessors of a state are its children.
+	 *
+	 * @return The predecessors of the current node.
+	 */
+	@Override
+	public ArrayList<AbstractSearchNode> generateParentNodes()
+	{
+		return generateChildNodes();
+	}
+
+	@Override
+	public boolean supportsInPlaceMoves()
+	{
+		return true;
+	}
+
+	@Override
+	public int getMoveCount()
 	{
-		int[][] newGrid = copyGrid();
-		int[] blankPos = getBlankPosition();
-		if (!(blankPos[1] == this.sideLength - 1))
+		return 4;
+	}
+
+	@Override
+	public boolean applyMove(int move)
+	{
+		int target = targetCell(move);
+		if (target < 0)
+		{
+			return false;
+		}
+		int tile = tileAt(target);
+		manhattanDistance += distanceToGoal(tile, blankIndex) - distanceToGoal(tile, target);
+		// only the two lines the tile moves between can change their conflicts
+		boolean vertical = move == UP || move == DOWN;
+		int fromLine = vertical ? target / sideLength : target % sideLength;
+		int toLine = vertical ? blankIndex / sideLength : blankIndex % sideLength;
+		if (linearConflictEnabled)
 		{
-			newGrid[blankPos[0]][blankPos[1]] = newGrid[blankPos[0]][blankPos[1] + 1];
-			newGrid[blankPos[0]][blankPos[1] + 1] = 0;
+			linearConflict -= lineConflict(fromLine, vertical) + lineConflict(toLine, vertical);
 		}
-		return newGrid;
+		if (tiles == null)
+		{
+			int shift = target << 2;
+			packedTiles = (packedTiles & ~(0xFL << shift)) | ((long) tile << (blankIndex << 2));
+		} else
+		{
+			tiles[blankIndex] = tiles[target];
+			tiles[target] = 0;
+		}
+		blankIndex = target;
+		if (linearConflictEnabled)
+		{
+			linearConflict += lineConflict(fromLine, vertical) + lineConflict(toLine, vertical);
+		}
+		// the parent is no longer one move away once the state has been changed in place
+		lastMove = -1;
+		invalidateHeuristicValue();
+		return true;
 	}
 
 	@Override
-	public boolean inGoalState()
+	public void undoMove(int move)
 	{
-		return Arrays.deepEquals(this.grid, getNewGrid());
+		applyMove(getInverseMove(move));
 	}
 
 	@Override
-	public ArrayList<AbstractSearchNode> generateChildNodes()
+	public int getInverseMove(int move)
 	{
-		ArrayList<AbstractSearchNode> newPuzzles = new ArrayList<>();
-		newPuzzles.add(new Puzzle(this, this.moveBlankUp()));
-		newPuzzles.add(new Puzzle(this, this.moveBlankDown()));
-		newPuzzles.add(new Puzzle(this, this.moveBlankLeft()));
-		newPuzzles.add(new Puzzle(this, this.moveBlankRight()));
-		return newPuzzles;
+		return move ^ 1;
 	}
 
 	@Override
-	public boolean equalsNode(AbstractSearchNode node)
+	public Puzzle copyNode()
 	{
-		return Arrays.deepEquals(((Puzzle) node).grid, this.grid);
+		return new Puzzle(this);
 	}
 
 	@Override
-	public Integer calculateHeuristic()
+	public Puzzle createChildNode(int move)
+	{
+		return targetCell(move) < 0 ? null : new Puzzle(this, move);
+	}
+
+	@Override
+	public int getLastMove()
+	{
+		return lastMove;
+	}
+
+	/**
+	 * Boards with a side length of up to 4 are already held as a single long.
+	 *
+	 * @return True if the board is packed.
+	 */
+	@Override
+	public boolean hasPackedState()
+	{
+		return tiles == null;
+	}
+
+	@Override
+	public long getPackedState()
+	{
+		if (tiles != null)
+		{
+			throw new UnsupportedOperationException(String.format("A board with a side length of %d can not be packed. Expected up to %d.", sideLength, MAX_PACKED_SIDE_LENGTH));
+		}
+		return packedTiles;
+	}
+
+	/**
+	 * Creates a root node with the same settings as this node holding a packed board.
+	 *
+	 * @param packedState A board packed by {@link #getPackedState()} with the same side length as this node.
+	 * @return The new node.
+	 */
+	@Override
+	public Puzzle createNodeFromPackedState(long packedState)
 	{
-		int heuristicValue = 0;
-		int[] intendedPosition = new int[2];
-		int[] actualPosition;
-		for (int n = 1; n < Math.pow(this.sideLength, 2); n++)
+		if (tiles != null)
+		{
+			throw new UnsupportedOperationException(String.format("A board with a side length of %d can not be packed. Expected up to %d.", sideLength, MAX_PACKED_SIDE_LENGTH));
+		}
+		Puzzle node = new Puzzle(this);
+		node.packedTiles = packedState;
+		for (int cell = 0; cell < cellCount; cell++)
 		{
-			intendedPosition[0] = intendedPosition[0] + 1;
-			if (intendedPosition[0] > sideLength)
+			if (((packedState >>> (cell << 2)) & 0xF) == 0)
 			{
-				intendedPosition[0] = 0;
-				intendedPosition[1] = intendedPosition[1] + 1;
+				node.blankIndex = cell;
+				break;
 			}
-			actualPosition = getPositionOf(n);
-			heuristicValue += Math.abs(intendedPosition[0] - actualPosition[0]);
-			heuristicValue += Math.abs(intendedPosition[1] - actualPosition[1]);
 		}
-		return heuristicValue;
+		node.recalculateHeuristic();
+		return node;
+	}
+
+	@Override
+	public boolean equalsNode(AbstractSearchNode node)
+	{
+		Puzzle other = (Puzzle) node;
+		if (tiles == null)
+		{
+			return packedTiles == other.packedTiles && sideLength == other.sideLength;
+		}
+		return Arrays.equals(tiles, other.tiles);
+	}
+
+	@Override
+	public int stateHash()
+	{
+		if (tiles == null)
+		{
+			return Long.hashCode(packedTiles * 0x9E3779B97F4A7C15L);
+		}
+		return Arrays.hashCode(tiles);
+	}
+
+	@Override
+	public Integer calculateHeuristic()
+	{
+		return heuristic == null ? manhattanDistance + linearConflict : heuristic.evaluate(this);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package SlidingTilePuzzle;
+
+/**
+ * A heuristic that estimates the number of moves needed to solve a puzzle.
+ * Implementations are shared between all the nodes of a search and may be called from several threads,
+ * so they must not keep per call state.
+ */
+public interface PuzzleHeuristic
+{
+	/**
+	 * @param puzzle The puzzle to estimate.
+	 * @return A value that is not greater than the number of moves needed to solve the puzzle.
+	 */
+	int evaluate(Puzzle puzzle);
+}
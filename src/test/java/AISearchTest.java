@@ -1,10 +1,43 @@
 import AISearch.AISearch;
 import AISearch.AbstractSearchNode;
+import AISearch.BatchSolver;
+import AISearch.BucketOpenList;
+import AISearch.CheckpointedHeuristicSearch;
+import AISearch.ExternalBreadthFirstSearch;
 import AISearch.GoalNodeNotFoundException;
+import AISearch.MemoryLimitExceededException;
+import AISearch.OffHeapStateTable;
+import AISearch.OpenList;
+import AISearch.PairingHeapOpenList;
+import AISearch.PortfolioSolver;
+import AISearch.SearchCancelledException;
+import AISearch.SearchIterator;
+import AISearch.SearchListener;
+import AISearch.SearchOptions;
+import AISearch.SearchSolution;
+import AISearch.SearchStatistics;
+import AISearch.SolutionCache;
+import SlidingTilePuzzle.AdditivePatternDatabase;
+import SlidingTilePuzzle.PatternDatabase;
 import SlidingTilePuzzle.Puzzle;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,7 +73,9 @@ class AISearchTest
 				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstSearch(shuffledPuzzle, shuffleDepth - 1)),
 				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstSearch(shuffledPuzzle, true, shuffleDepth - 1)),
 				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstSearch(shuffledPuzzle, false, shuffleDepth - 1)),
-				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyDepthFirstSearch(shuffledPuzzle, shuffleDepth - 1))
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyDepthFirstSearch(shuffledPuzzle, shuffleDepth - 1)),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyDepthFirstSearch(shuffledPuzzle, true, shuffleDepth - 1)),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyDepthFirstSearch(shuffledPuzzle, false, shuffleDepth - 1))
 		);
 	}
 
@@ -73,7 +108,9 @@ class AISearchTest
 				() -> assertEquals(8, AISearch.applyBreadthFirstSearch(shuffledPuzzle, shuffleDepth).getNodeDepth()),
 				() -> assertEquals(8, AISearch.applyBreadthFirstSearch(shuffledPuzzle, true, shuffleDepth).getNodeDepth()),
 				() -> assertEquals(8, AISearch.applyBreadthFirstSearch(shuffledPuzzle, false, shuffleDepth).getNodeDepth()),
-				() -> assertEquals(8, AISearch.applyDepthFirstSearch(shuffledPuzzle, shuffleDepth).getNodeDepth())
+				() -> assertEquals(8, AISearch.applyDepthFirstSearch(shuffledPuzzle, shuffleDepth).getNodeDepth()),
+				() -> assertEquals(8, AISearch.applyDepthFirstSearch(shuffledPuzzle, true, shuffleDepth).getNodeDepth()),
+				() -> assertEquals(8, AISearch.applyDepthFirstSearch(shuffledPuzzle, false, shuffleDepth).getNodeDepth())
 		);
 	}
 
@@ -125,4 +162,737 @@ class AISearchTest
 				() -> assertTrue(solutionNode.inGoalState() && solutionNode.getNodeDepth() == shuffleDepth)
 		);
 	}
-}
\ No newline at end of file
+
+	@DisplayName("A* search with options finds a solution with and without reopening closed states")
+	@Test
+	void aStarWithOptionsFindsSolution()
+	{
+		assertAll(
+				() -> assertTrue(AISearch.applyHeuristicSearch(shuffledPuzzle, shuffleDepth, new SearchOptions()).inGoalState()),
+				() -> assertEquals(shuffleDepth, AISearch.applyHeuristicSearch(shuffledPuzzle, shuffleDepth, new SearchOptions().setReopenClosedNodes(false)).getNodeDepth()),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyHeuristicSearch(shuffledPuzzle, shuffleDepth - 1, new SearchOptions()))
+		);
+	}
+
+	@DisplayName("Solution returned by iterative deepening A* search is shallowest")
+	@Test
+	void iterativeDeepeningFindsShallowSolution()
+	{
+		assertAll(
+				() -> assertEquals(shuffleDepth, AISearch.applyIterativeDeepeningHeuristicSearch(shuffledPuzzle).getNodeDepth()),
+				() -> assertTrue(AISearch.applyIterativeDeepeningHeuristicSearch(shuffledPuzzle, shuffleDepth).inGoalState()),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyIterativeDeepeningHeuristicSearch(shuffledPuzzle, shuffleDepth - 1))
+		);
+	}
+
+	@DisplayName("Boards larger than 4x4 are searched and decoded correctly")
+	@Test
+	void largeBoardFindsSolution() throws GoalNodeNotFoundException
+	{
+		Puzzle largePuzzle = new Puzzle(5, 0);
+		largePuzzle.setGrid(largePuzzle.moveBlankUp());
+		largePuzzle.setGrid(largePuzzle.moveBlankLeft());
+		largePuzzle.setGrid(largePuzzle.moveBlankUp());
+		int[][] grid = largePuzzle.getGrid();
+		AbstractSearchNode solutionNode = AISearch.applyBreadthFirstSearch(largePuzzle);
+		assertAll(
+				() -> assertEquals(0, grid[2][3]),
+				() -> assertEquals(14, grid[3][3]),
+				() -> assertTrue(solutionNode.inGoalState()),
+				() -> assertEquals(3, solutionNode.getNodeDepth())
+		);
+	}
+
+	@DisplayName("Heuristic updated on every move matches the heuristic calculated from scratch")
+	@Test
+	void incrementalHeuristicMatchesFullCalculation()
+	{
+		Puzzle movedPuzzle = new Puzzle(4, 0);
+		movedPuzzle.setLinearConflictEnabled(true);
+		Puzzle oneMovePuzzle = new Puzzle(4, 0);
+		oneMovePuzzle.setGrid(oneMovePuzzle.moveBlankLeft());
+		Random random = new Random(42);
+		for (int i = 0; i < 500; i++)
+		{
+			movedPuzzle.applyMove(random.nextInt(4));
+		}
+		Puzzle recalculatedPuzzle = new Puzzle(4, 0);
+		recalculatedPuzzle.setLinearConflictEnabled(true);
+		recalculatedPuzzle.setGrid(movedPuzzle.getGrid());
+		assertAll(
+				() -> assertEquals(recalculatedPuzzle.calculateHeuristic(), movedPuzzle.calculateHeuristic()),
+				() -> assertEquals(0, solvedPuzzle.calculateHeuristic()),
+				() -> assertEquals(1, oneMovePuzzle.calculateHeuristic())
+		);
+	}
+
+	@DisplayName("Additive pattern database loaded from disk is admissible and dominates Manhattan distance")
+	@Test
+	void patternDatabaseHeuristicIsAdmissible(@TempDir Path directory) throws Exception
+	{
+		AdditivePatternDatabase built = AdditivePatternDatabase.build(3, new int[]{1, 2, 3, 4}, new int[]{5, 6, 7, 8});
+		PatternDatabase[] patternDatabases = built.getPatternDatabases();
+		patternDatabases[0].save(directory.resolve("first.pdb"));
+		patternDatabases[1].save(directory.resolve("second.pdb"));
+		AdditivePatternDatabase loaded = AdditivePatternDatabase.load(directory.resolve("first.pdb"), directory.resolve("second.pdb"));
+		Random random = new Random(7);
+		for (int i = 0; i < 20; i++)
+		{
+			Puzzle puzzle = new Puzzle(3, 0);
+			for (int move = 0; move < 40; move++)
+			{
+				puzzle.applyMove(random.nextInt(4));
+			}
+			int manhattanDistance = puzzle.calculateHeuristic();
+			int solutionDepth = AISearch.applyBreadthFirstSearch(puzzle).getNodeDepth();
+			puzzle.setHeuristic(loaded);
+			int patternDistance = puzzle.calculateHeuristic();
+			assertAll(
+					() -> assertEquals(built.evaluate(puzzle), patternDistance),
+					() -> assertTrue(patternDistance >= manhattanDistance),
+					() -> assertTrue(patternDistance <= solutionDepth),
+					() -> assertEquals(solutionDepth, AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE).getNodeDepth())
+			);
+		}
+	}
+
+	@DisplayName("Parallel A* search finds the shallowest solution with any number of threads")
+	@Test
+	void parallelAStarFindsShallowSolution()
+	{
+		Puzzle deepPuzzle = new Puzzle(3, 0);
+		Random random = new Random(3);
+		for (int move = 0; move < 60; move++)
+		{
+			deepPuzzle.applyMove(random.nextInt(4));
+		}
+		assertAll(
+				() -> assertEquals(shuffleDepth, AISearch.applyParallelHeuristicSearch(shuffledPuzzle, Integer.MAX_VALUE).getNodeDepth()),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyParallelHeuristicSearch(shuffledPuzzle, shuffleDepth - 1, 2, new SearchOptions())),
+				() -> assertThrows(IllegalArgumentException.class, () -> AISearch.applyParallelHeuristicSearch(shuffledPuzzle, shuffleDepth, 0, new SearchOptions()))
+		);
+		int solutionDepth = assertDoesNotThrow(() -> AISearch.applyBreadthFirstSearch(deepPuzzle).getNodeDepth());
+		for (int threadCount = 1; threadCount <= 4; threadCount++)
+		{
+			int threads = threadCount;
+			AbstractSearchNode solutionNode = assertDoesNotThrow(() -> AISearch.applyParallelHeuristicSearch(deepPuzzle, Integer.MAX_VALUE, threads, new SearchOptions()));
+			AbstractSearchNode noReopenNode = assertDoesNotThrow(() -> AISearch.applyParallelHeuristicSearch(deepPuzzle, Integer.MAX_VALUE, threads, new SearchOptions().setReopenClosedNodes(false)));
+			assertTrue(solutionNode.inGoalState());
+			assertEquals(solutionDepth, solutionNode.getNodeDepth());
+			assertEquals(solutionDepth, noReopenNode.getNodeDepth());
+		}
+	}
+
+	@DisplayName("Parallel breadth first search returns the same shallowest solution every time")
+	@Test
+	void parallelBreadthFirstShallowSolution() throws GoalNodeNotFoundException
+	{
+		AbstractSearchNode firstSolution = AISearch.applyParallelBreadthFirstSearch(shuffledPuzzle);
+		AbstractSearchNode secondSolution = AISearch.applyParallelBreadthFirstSearch(shuffledPuzzle, shuffleDepth, new ForkJoinPool(3));
+		assertAll(
+				() -> assertTrue(firstSolution.inGoalState()),
+				() -> assertEquals(shuffleDepth, firstSolution.getNodeDepth()),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyParallelBreadthFirstSearch(shuffledPuzzle, shuffleDepth - 1, ForkJoinPool.commonPool()))
+		);
+		for (AbstractSearchNode first = firstSolution, second = secondSolution; first != null; first = first.getParentNode(), second = second.getParentNode())
+		{
+			assertTrue(first.equalsNode(second));
+		}
+	}
+
+	@DisplayName("Bidirectional search finds a shortest path from the origin")
+	@Test
+	void bidirectionalFindsShallowSolution() throws GoalNodeNotFoundException
+	{
+		Random random = new Random(5);
+		for (int i = 0; i < 10; i++)
+		{
+			Puzzle puzzle = new Puzzle(3, 0);
+			for (int move = 0; move < 50; move++)
+			{
+				puzzle.applyMove(random.nextInt(4));
+			}
+			int solutionDepth = AISearch.applyBreadthFirstSearch(puzzle).getNodeDepth();
+			AbstractSearchNode solutionNode = AISearch.applyBidirectionalSearch(puzzle, Integer.MAX_VALUE);
+			AbstractSearchNode rootNode = solutionNode;
+			while (rootNode.getParentNode() != null)
+			{
+				rootNode = rootNode.getParentNode();
+			}
+			assertTrue(solutionNode.inGoalState());
+			assertEquals(solutionDepth, solutionNode.getNodeDepth());
+			assertTrue(rootNode.equalsNode(puzzle));
+		}
+		assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBidirectionalSearch(shuffledPuzzle, shuffleDepth - 1));
+	}
+
+	@DisplayName("Batch solver solves every job and times out slow jobs without stalling the batch")
+	@Test
+	void batchSolverTimesOutSlowJobs() throws Exception
+	{
+		Puzzle slowPuzzle = new Puzzle(4, 0);
+		Random random = new Random(9);
+		for (int move = 0; move < 400; move++)
+		{
+			slowPuzzle.applyMove(random.nextInt(4));
+		}
+		List<CompletableFuture<AbstractSearchNode>> results;
+		CompletableFuture<AbstractSearchNode> slowResult;
+		try (BatchSolver solver = new BatchSolver((node, options) -> AISearch.applyBreadthFirstSearch(node, true, Integer.MAX_VALUE, options), new SearchOptions(), Duration.ofMillis(200), 2, 4))
+		{
+			slowResult = solver.submit(slowPuzzle);
+			results = solver.submitAll(List.of(shuffledPuzzle, solvedPuzzle, shuffledPuzzle, shuffledPuzzle));
+		}
+		for (CompletableFuture<AbstractSearchNode> result : results)
+		{
+			assertTrue(result.get().inGoalState());
+		}
+		ExecutionException exception = assertThrows(ExecutionException.class, slowResult::get);
+		assertInstanceOf(SearchCancelledException.class, exception.getCause());
+	}
+
+	@DisplayName("Searches fill in statistics and report progress to a listener")
+	@Test
+	void searchesRecordStatistics()
+	{
+		AtomicLong expansions = new AtomicLong();
+		AtomicLong layers = new AtomicLong();
+		SearchOptions options = new SearchOptions().setListener(new SearchListener()
+		{
+			@Override
+			public void nodeExpanded(AbstractSearchNode node, SearchStatistics statistics)
+			{
+				expansions.incrementAndGet();
+			}
+
+			@Override
+			public void layerCompleted(int layer, long nodeCount, SearchStatistics statistics)
+			{
+				layers.incrementAndGet();
+			}
+		});
+		assertDoesNotThrow(() -> AISearch.applyBreadthFirstSearch(shuffledPuzzle, true, shuffleDepth, options));
+		SearchStatistics statistics = options.getStatistics();
+		GoalNodeNotFoundException exception = assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyHeuristicSearch(shuffledPuzzle, shuffleDepth - 1, options));
+		assertAll(
+				() -> assertEquals(expansions.get() - exception.getStatistics().getNodesExpanded(), statistics.getNodesExpanded()),
+				() -> assertEquals(shuffleDepth - 1, layers.get()),
+				() -> assertEquals(shuffleDepth, statistics.getMaxDepth()),
+				() -> assertTrue(statistics.getNodesGenerated() > statistics.getNodesExpanded()),
+				() -> assertTrue(statistics.getDuplicatesPruned() > 0),
+				() -> assertTrue(statistics.getPeakClosedSetSize() > statistics.getPeakFringeSize()),
+				() -> assertSame(options.getStatistics(), exception.getStatistics()),
+				() -> assertEquals(shuffleDepth - 1, exception.getStatistics().getMaxDepth())
+		);
+	}
+
+	@DisplayName("Searches without options pass on the exception of the failed search with its statistics")
+	@Test
+	void overloadsWithoutOptionsKeepStatistics()
+	{
+		Puzzle unreachable = new Puzzle(2, 0)
+		{
+			@Override
+			public boolean isSolvable()
+			{
+				return true;
+			}
+		};
+		int[][] grid = unreachable.getGrid();
+		int tile = grid[0][0];
+		grid[0][0] = grid[0][1];
+		grid[0][1] = tile;
+		unreachable.setGrid(grid);
+		GoalNodeNotFoundException depthFirst = assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyDepthFirstSearch(unreachable));
+		GoalNodeNotFoundException prunedDepthFirst = assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyDepthFirstSearch(unreachable, true));
+		GoalNodeNotFoundException breadthFirst = assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstSearch(unreachable));
+		GoalNodeNotFoundException prunedBreadthFirst = assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstSearch(unreachable, true));
+		assertAll(
+				() -> assertTrue(depthFirst.getStatistics().getNodesExpanded() > 0),
+				() -> assertTrue(prunedDepthFirst.getStatistics().getNodesExpanded() > 0),
+				() -> assertTrue(breadthFirst.getStatistics().getNodesExpanded() > 0),
+				() -> assertTrue(prunedBreadthFirst.getStatistics().getNodesExpanded() > 0)
+		);
+	}
+
+	@DisplayName("Child node visitor skips illegal moves and the move back to the parent")
+	@Test
+	void forEachChildNodeSkipsNoOpsAndParent()
+	{
+		ArrayList<AbstractSearchNode> rootChildren = new ArrayList<>();
+		solvedPuzzle.forEachChildNode(rootChildren::add);
+		ArrayList<AbstractSearchNode> grandchildren = new ArrayList<>();
+		rootChildren.get(0).forEachChildNode(grandchildren::add);
+		assertAll(
+				() -> assertEquals(2, rootChildren.size()),
+				() -> assertEquals(2, grandchildren.size()),
+				() -> assertTrue(grandchildren.stream().noneMatch(node -> node.equalsNode(solvedPuzzle))),
+				() -> assertTrue(grandchildren.stream().noneMatch(node -> node.equalsNode(rootChildren.get(0))))
+		);
+	}
+
+	@DisplayName("Off heap state table stores payloads across resizes")
+	@Test
+	void offHeapStateTableStoresPayloads() throws GoalNodeNotFoundException
+	{
+		OffHeapStateTable table = new OffHeapStateTable(1 << 20);
+		Random random = new Random(3);
+		long[] states = new long[20_000];
+		for (int i = 1; i < states.length; i++)
+		{
+			states[i] = random.nextLong();
+		}
+		for (int i = 0; i < states.length; i++)
+		{
+			assertTrue(table.putIfAbsent(states[i], i % 1000, i % 4));
+		}
+		assertFalse(table.putIfAbsent(states[5], 0, 0));
+		table.put(states[7], 3, -1);
+		assertAll(
+				() -> assertEquals(states.length, table.size()),
+				() -> assertEquals(999, OffHeapStateTable.depthOf(table.get(states[999]))),
+				() -> assertEquals(2, OffHeapStateTable.parentMoveOf(table.get(states[998]))),
+				() -> assertEquals(0, OffHeapStateTable.depthOf(table.get(0))),
+				() -> assertEquals(3, OffHeapStateTable.depthOf(table.get(states[7]))),
+				() -> assertEquals(-1, OffHeapStateTable.parentMoveOf(table.get(states[7]))),
+				() -> assertEquals(OffHeapStateTable.ABSENT, table.get(42)),
+				() -> assertThrows(MemoryLimitExceededException.class, () ->
+				{
+					for (long state = 1; ; state++)
+					{
+						table.putIfAbsent(state, 0, -1);
+					}
+				}),
+				() -> assertTrue(table.getMemoryUsed() * 3 > table.getMemoryLimit())
+		);
+		table.close();
+		table.close();
+		assertEquals(0, table.size());
+	}
+
+	@DisplayName("Breadth first and A* searches find the same solutions with an off heap closed set")
+	@Test
+	void offHeapClosedSetFindsSameSolutions() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(3, 60, 5);
+		SearchOptions options = new SearchOptions().setStateTableMemoryLimit(64L << 20);
+		int depth = AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE).getNodeDepth();
+		assertAll(
+				() -> assertEquals(depth, AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, options).getNodeDepth()),
+				() -> assertEquals(depth, AISearch.applyBreadthFirstSearch(puzzle, true, Integer.MAX_VALUE, options).getNodeDepth()),
+				() -> assertThrows(MemoryLimitExceededException.class, () -> AISearch.applyBreadthFirstSearch(new Puzzle(4, 200, 5), true, Integer.MAX_VALUE, new SearchOptions().setStateTableMemoryLimit(1 << 16)))
+		);
+	}
+
+	@DisplayName("External breadth first search enumerates the whole 8 puzzle")
+	@Test
+	void externalBreadthFirstSearchEnumeratesStateSpace(@TempDir Path directory) throws Exception
+	{
+		long[] expected = {1, 2, 4, 8, 16, 20, 39, 62, 116, 152, 286, 396, 748, 1024, 1893, 2512, 4485, 5638, 9529, 10878,
+				16993, 17110, 23952, 20224, 24047, 15578, 14560, 6274, 3910, 760, 221, 2};
+		Path layerFile = directory.resolve("layers.bin");
+		long[] histogram = new ExternalBreadthFirstSearch(directory, 1 << 17)
+				.setLayerFile(layerFile)
+				.search(new Puzzle(3, 0), Integer.MAX_VALUE, new SearchOptions());
+		ArrayList<Long> deepestStates = new ArrayList<>();
+		ExternalBreadthFirstSearch.forEachState(layerFile, 31, deepestStates::add);
+		Puzzle deepestPuzzle = new Puzzle(3, 0).createNodeFromPackedState(deepestStates.get(0));
+		assertAll(
+				() -> assertArrayEquals(expected, histogram),
+				() -> assertArrayEquals(expected, ExternalBreadthFirstSearch.readHistogram(layerFile)),
+				() -> assertEquals(2, deepestStates.size()),
+				() -> assertEquals(31, AISearch.applyIterativeDeepeningHeuristicSearch(deepestPuzzle).getNodeDepth()),
+				() -> assertEquals(1, Files.list(directory).count())
+		);
+	}
+
+	@DisplayName("Searches with compact paths rebuild valid shortest paths from the closed set")
+	@Test
+	void compactPathsRebuildSolutions() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(3, 60, 11);
+		int depth = AISearch.applyIterativeDeepeningHeuristicSearch(puzzle).getNodeDepth();
+		SearchOptions options = new SearchOptions().setCompactPaths(true);
+		SearchOptions offHeapOptions = new SearchOptions().setCompactPaths(true).setStateTableMemoryLimit(64L << 20);
+		List<AbstractSearchNode> goalNodes = List.of(
+				AISearch.applyBreadthFirstSearch(puzzle, true, Integer.MAX_VALUE, options),
+				AISearch.applyBreadthFirstSearch(puzzle, true, Integer.MAX_VALUE, offHeapOptions),
+				AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, options),
+				AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, offHeapOptions),
+				AISearch.applyDepthFirstSearch(puzzle, true, depth + 2, options));
+		for (AbstractSearchNode goalNode : goalNodes)
+		{
+			SearchSolution solution = SearchSolution.fromGoalNode(goalNode);
+			AbstractSearchNode replayed = solution.replay(puzzle);
+			assertAll(
+					() -> assertTrue(goalNode.inGoalState()),
+					() -> assertEquals(goalNode.getNodeDepth(), solution.getLength()),
+					() -> assertTrue(replayed.inGoalState()),
+					() -> assertEquals(solution.getLength(), replayed.getNodeDepth())
+			);
+		}
+		assertAll(
+				() -> assertEquals(depth, goalNodes.get(0).getNodeDepth()),
+				() -> assertEquals(depth, goalNodes.get(1).getNodeDepth()),
+				() -> assertEquals(depth, goalNodes.get(2).getNodeDepth()),
+				() -> assertEquals(depth, goalNodes.get(3).getNodeDepth()),
+				() -> assertTrue(goalNodes.get(4).getNodeDepth() <= depth + 2)
+		);
+	}
+
+	@DisplayName("The solution cache answers repeated and related queries with optimal paths")
+	@Test
+	void solutionCacheShortcutsSearches(@TempDir Path directory) throws Exception
+	{
+		Puzzle puzzle = new Puzzle(3, 60, 13);
+		int depth = AISearch.applyIterativeDeepeningHeuristicSearch(puzzle).getNodeDepth();
+		// a state one move further from the goal, whose optimal path runs through the first puzzle
+		Puzzle related = null;
+		for (int move = Puzzle.UP; move <= Puzzle.RIGHT; move++)
+		{
+			Puzzle child = puzzle.createChildNode(move);
+			if (child != null && AISearch.applyIterativeDeepeningHeuristicSearch(child.copyNode()).getNodeDepth() == depth + 1)
+			{
+				related = child.copyNode();
+			}
+		}
+		int relatedDepth = depth + 1;
+		SearchOptions uncachedOptions = new SearchOptions();
+		AISearch.applyHeuristicSearch(related, Integer.MAX_VALUE, uncachedOptions);
+		SolutionCache cache = new SolutionCache(1000);
+		AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, new SearchOptions().setSolutionCache(cache).setReopenClosedNodes(false));
+		int recordedWithoutReopening = cache.size();
+		SearchOptions options = new SearchOptions().setSolutionCache(cache);
+		AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, options);
+		int recorded = cache.size();
+		AbstractSearchNode repeated = AISearch.applyBreadthFirstSearch(puzzle, true, Integer.MAX_VALUE, options);
+		long repeatedExpansions = options.getStatistics().getNodesExpanded();
+		long hits = cache.getHits();
+		AbstractSearchNode relatedGoal = AISearch.applyHeuristicSearch(related, Integer.MAX_VALUE, options);
+		long relatedExpansions = options.getStatistics().getNodesExpanded();
+		Path file = directory.resolve("cache.bin");
+		cache.save(file);
+		SolutionCache loaded = SolutionCache.load(file, 1000);
+		assertAll(
+				() -> assertEquals(0, recordedWithoutReopening),
+				() -> assertEquals(depth + 1, recorded),
+				() -> assertEquals(depth, repeated.getNodeDepth()),
+				() -> assertTrue(repeated.inGoalState()),
+				() -> assertEquals(0, repeatedExpansions),
+				() -> assertEquals(1, hits),
+				() -> assertEquals(relatedDepth, relatedGoal.getNodeDepth()),
+				() -> assertTrue(relatedGoal.inGoalState()),
+				() -> assertTrue(relatedExpansions < uncachedOptions.getStatistics().getNodesExpanded()),
+				() -> assertTrue(cache.getMisses() > 0),
+				() -> assertEquals(cache.size(), loaded.size()),
+				() -> assertFalse(Files.exists(directory.resolve("cache.bin.tmp"))),
+				() -> assertEquals(depth, SolutionCache.distanceOf(loaded.get(puzzle))),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyHeuristicSearch(puzzle, depth - 1, options))
+		);
+	}
+
+	@DisplayName("Weighted, anytime and beam searches find bounded solutions")
+	@Test
+	void boundedSuboptimalSearches() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(4, 80, 3);
+		int depth = AISearch.applyIterativeDeepeningHeuristicSearch(puzzle).getNodeDepth();
+		SearchOptions optimalOptions = new SearchOptions();
+		AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, optimalOptions);
+		SearchOptions weightedOptions = new SearchOptions();
+		AbstractSearchNode weighted = AISearch.applyWeightedHeuristicSearch(puzzle, Integer.MAX_VALUE, 2, weightedOptions);
+		ArrayList<Double> bounds = new ArrayList<>();
+		SearchOptions anytimeOptions = new SearchOptions().setListener(new SearchListener()
+		{
+			@Override
+			public void solutionImproved(AbstractSearchNode goalNode, double suboptimalityBound, SearchStatistics statistics)
+			{
+				bounds.add(suboptimalityBound);
+			}
+		});
+		AbstractSearchNode anytime = AISearch.applyAnytimeHeuristicSearch(puzzle, Integer.MAX_VALUE, 3, 0.5, anytimeOptions);
+		AbstractSearchNode beam = AISearch.applyBeamSearch(puzzle, 200, 64);
+		assertAll(
+				() -> assertTrue(weighted.inGoalState()),
+				() -> assertTrue(weighted.getNodeDepth() <= weightedOptions.getStatistics().getSuboptimalityBound() * depth),
+				() -> assertTrue(weightedOptions.getStatistics().getSuboptimalityBound() <= 2),
+				() -> assertTrue(weightedOptions.getStatistics().getNodesExpanded() < optimalOptions.getStatistics().getNodesExpanded()),
+				() -> assertTrue(anytime.inGoalState()),
+				() -> assertEquals(depth, anytime.getNodeDepth()),
+				() -> assertEquals(1, anytimeOptions.getStatistics().getSuboptimalityBound()),
+				() -> assertFalse(bounds.isEmpty()),
+				() -> assertTrue(beam.inGoalState()),
+				() -> assertEquals(beam.getNodeDepth(), SearchSolution.fromGoalNode(beam).getLength()),
+				() -> assertTrue(SearchSolution.fromGoalNode(beam).replay(puzzle).inGoalState()),
+				() -> assertThrows(SearchCancelledException.class, () -> AISearch.applyAnytimeHeuristicSearch(puzzle, Integer.MAX_VALUE, 3, 0.5, new SearchOptions().setTimeout(Duration.ZERO))),
+				() -> assertThrows(IllegalArgumentException.class, () -> AISearch.applyWeightedHeuristicSearch(puzzle, Integer.MAX_VALUE, 0.5))
+		);
+	}
+
+	@DisplayName("Lazy searches return goal nodes one at a time and stop when closed")
+	@Test
+	void lazySearchesStreamGoalNodes() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(3, 40, 17);
+		int depth = AISearch.applyBreadthFirstSearch(puzzle, true, Integer.MAX_VALUE).getNodeDepth();
+		List<AbstractSearchNode> paths;
+		SearchOptions pathOptions = new SearchOptions();
+		try (Stream<AbstractSearchNode> goalNodes = AISearch.iterateBreadthFirstSearch(puzzle, false, depth + 4, pathOptions).stream())
+		{
+			paths = goalNodes.limit(3).toList();
+		}
+		long expandedAfterClose = pathOptions.getStatistics().getNodesExpanded();
+		SearchIterator bestFirst = AISearch.iterateHeuristicSearch(puzzle, Integer.MAX_VALUE, new SearchOptions());
+		AbstractSearchNode first = bestFirst.next();
+		boolean moreGoalStates = bestFirst.hasNext();
+		SearchIterator expansions = AISearch.iterateDepthFirstSearch(puzzle, true, 5, new SearchOptions()).setReportExpandedNodes(true);
+		long expandedNodes = expansions.stream().limit(10).count();
+		assertAll(
+				() -> assertEquals(3, paths.size()),
+				() -> assertEquals(depth, paths.get(0).getNodeDepth()),
+				() -> assertTrue(paths.stream().allMatch(AbstractSearchNode::inGoalState)),
+				() -> assertTrue(paths.get(2).getNodeDepth() >= paths.get(1).getNodeDepth()),
+				() -> assertEquals(expandedAfterClose, pathOptions.getStatistics().getNodesExpanded()),
+				() -> assertEquals(depth, first.getNodeDepth()),
+				() -> assertFalse(moreGoalStates),
+				() -> assertEquals(10, expandedNodes),
+				() -> assertTrue(expansions.getStatistics().getNodesExpanded() < 10)
+		);
+	}
+
+	@DisplayName("Unsolvable puzzles are rejected without searching")
+	@Test
+	void unsolvablePuzzlesAreRejected()
+	{
+		ArrayList<Puzzle> solvable = new ArrayList<>();
+		ArrayList<Puzzle> unsolvable = new ArrayList<>();
+		for (int sideLength = 2; sideLength <= 6; sideLength++)
+		{
+			for (int seed = 0; seed < 5; seed++)
+			{
+				Puzzle puzzle = new Puzzle(sideLength, 100, seed);
+				solvable.add(puzzle);
+				int[][] grid = puzzle.getGrid();
+				int[] first = grid[0][0] == 0 || grid[0][1] == 0 ? new int[]{1, 0} : new int[]{0, 0};
+				int[] second = grid[0][0] == 0 || grid[0][1] == 0 ? new int[]{1, 1} : new int[]{0, 1};
+				int tile = grid[first[0]][first[1]];
+				grid[first[0]][first[1]] = grid[second[0]][second[1]];
+				grid[second[0]][second[1]] = tile;
+				Puzzle swapped = new Puzzle(sideLength, 0);
+				swapped.setGrid(grid);
+				unsolvable.add(swapped);
+			}
+		}
+		SearchOptions options = new SearchOptions();
+		assertAll(
+				() -> assertTrue(solvable.stream().allMatch(Puzzle::isSolvable)),
+				() -> assertTrue(unsolvable.stream().noneMatch(Puzzle::isSolvable)),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstSearch(unsolvable.get(5), true, Integer.MAX_VALUE, options)),
+				() -> assertEquals(0, options.getStatistics().getNodesExpanded()),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyIterativeDeepeningHeuristicSearch(unsolvable.get(10))),
+				() -> assertFalse(AISearch.iterateHeuristicSearch(unsolvable.get(10), Integer.MAX_VALUE, new SearchOptions()).hasNext())
+		);
+	}
+
+	@DisplayName("Frontier searches find shortest paths without a closed list")
+	@Test
+	void frontierSearchesFindShortestPaths() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(3, 80, 19);
+		SearchOptions breadthFirstOptions = new SearchOptions();
+		int depth = AISearch.applyBreadthFirstSearch(puzzle, true, Integer.MAX_VALUE, breadthFirstOptions).getNodeDepth();
+		SearchOptions frontierOptions = new SearchOptions();
+		AbstractSearchNode frontier = AISearch.applyFrontierBreadthFirstSearch(puzzle, Integer.MAX_VALUE, frontierOptions);
+		Puzzle largePuzzle = new Puzzle(4, 80, 19);
+		int largeDepth = AISearch.applyIterativeDeepeningHeuristicSearch(largePuzzle).getNodeDepth();
+		AbstractSearchNode heuristic = AISearch.applyBreadthFirstHeuristicSearch(largePuzzle, Integer.MAX_VALUE, new SearchOptions());
+		AbstractSearchNode bounded = AISearch.applyBreadthFirstHeuristicSearch(largePuzzle, Integer.MAX_VALUE, largeDepth + 4, new SearchOptions());
+		// an admissible heuristic that is zero away from the goal leaves nodes at the bound that are not expanded
+		Puzzle zeroPuzzle = new Puzzle(3, 10, 7L);
+		zeroPuzzle.setHeuristic(node -> 0);
+		int zeroDepth = AISearch.applyHeuristicSearch(zeroPuzzle, Integer.MAX_VALUE, new SearchOptions()).getNodeDepth();
+		AbstractSearchNode zeroHeuristic = AISearch.applyBreadthFirstHeuristicSearch(zeroPuzzle, 30, new SearchOptions());
+		assertAll(
+				() -> assertTrue(frontier.inGoalState()),
+				() -> assertEquals(depth, frontier.getNodeDepth()),
+				() -> assertEquals(depth, SearchSolution.fromGoalNode(frontier).replay(puzzle).getNodeDepth()),
+				() -> assertTrue(frontierOptions.getStatistics().getPeakClosedSetSize() < breadthFirstOptions.getStatistics().getPeakClosedSetSize()),
+				() -> assertTrue(heuristic.inGoalState()),
+				() -> assertEquals(largeDepth, heuristic.getNodeDepth()),
+				() -> assertTrue(SearchSolution.fromGoalNode(heuristic).replay(largePuzzle).inGoalState()),
+				() -> assertEquals(largeDepth, bounded.getNodeDepth()),
+				() -> assertTrue(zeroHeuristic.inGoalState()),
+				() -> assertEquals(zeroDepth, zeroHeuristic.getNodeDepth()),
+				() -> assertThrows(GoalNodeNotFoundException.class, () -> AISearch.applyBreadthFirstHeuristicSearch(largePuzzle, Integer.MAX_VALUE, largeDepth - 2, new SearchOptions()))
+		);
+	}
+
+	@DisplayName("Portfolio solver returns the first result and ranks strategies by wins")
+	@Test
+	void portfolioSolverReturnsFirstResult() throws Exception
+	{
+		ArrayList<AbstractSearchNode> goalNodes = new ArrayList<>();
+		List<PortfolioSolver.StrategyStatistics> statistics;
+		try (PortfolioSolver solver = new PortfolioSolver(new SearchOptions()))
+		{
+			solver.addStrategy("stall", (node, options) ->
+			{
+				while (!options.isCancelled())
+				{
+					Thread.onSpinWait();
+				}
+				throw new SearchCancelledException();
+			});
+			solver.addStrategy("heuristic", (node, options) -> AISearch.applyHeuristicSearch(node, Integer.MAX_VALUE, options));
+			for (int seed = 0; seed < 4; seed++)
+			{
+				goalNodes.add(solver.solve(new Puzzle(3, 60, seed)));
+			}
+			solver.setMaxConcurrentStrategies(1);
+			goalNodes.add(solver.solve(new Puzzle(3, 60, 4)));
+			statistics = solver.getStrategyStatistics();
+		}
+		PortfolioSolver.StrategyStatistics best = statistics.get(0);
+		PortfolioSolver.StrategyStatistics worst = statistics.get(1);
+		try (PortfolioSolver rejecting = new PortfolioSolver(new SearchOptions()))
+		{
+			rejecting.addStrategy("heuristic", (node, options) -> AISearch.applyHeuristicSearch(node, Integer.MAX_VALUE, options))
+					.setAcceptance(node -> false);
+			assertThrows(GoalNodeNotFoundException.class, () -> rejecting.solve(new Puzzle(3, 60, 0)));
+		}
+		try (PortfolioSolver stalling = new PortfolioSolver(new SearchOptions().setTimeout(Duration.ofMillis(50))))
+		{
+			stalling.addStrategy("stall", (node, options) ->
+			{
+				while (!options.isCancelled())
+				{
+					Thread.onSpinWait();
+				}
+				throw new SearchCancelledException();
+			});
+			assertThrows(SearchCancelledException.class, () -> stalling.solve(new Puzzle(3, 60, 0)));
+		}
+		try (PortfolioSolver faulty = new PortfolioSolver(new SearchOptions()))
+		{
+			faulty.addStrategy("faulty", (node, options) ->
+			{
+				throw new ArithmeticException();
+			});
+			IllegalStateException e = assertThrows(IllegalStateException.class, () -> faulty.solve(new Puzzle(3, 60, 0)));
+			assertInstanceOf(ArithmeticException.class, e.getCause());
+		}
+		assertAll(
+				() -> assertTrue(goalNodes.stream().allMatch(AbstractSearchNode::inGoalState)),
+				() -> assertEquals("heuristic", best.getName()),
+				() -> assertEquals(5, best.getRuns()),
+				() -> assertEquals(5, best.getWins()),
+				() -> assertEquals(4, worst.getRuns()),
+				() -> assertEquals(0, worst.getWins()),
+				() -> assertEquals(0, worst.getFailures()),
+				() -> assertThrows(IllegalArgumentException.class, () -> new PortfolioSolver(new SearchOptions()).setMaxConcurrentStrategies(0))
+		);
+	}
+
+	@DisplayName("Checkpointed searches resume with the same result")
+	@Test
+	void checkpointedSearchesResume(@TempDir Path directory) throws Exception
+	{
+		Puzzle puzzle = new Puzzle(4, 200, 1);
+		int depth = AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE).getNodeDepth();
+		SearchOptions uninterruptedOptions = new SearchOptions();
+		AbstractSearchNode uninterrupted = new CheckpointedHeuristicSearch(directory.resolve("uninterrupted"), Duration.ofHours(1))
+				.search(puzzle, Integer.MAX_VALUE, uninterruptedOptions);
+		long expandedNodes = uninterruptedOptions.getStatistics().getNodesExpanded();
+		Path file = directory.resolve("checkpoint");
+		CheckpointedHeuristicSearch search = new CheckpointedHeuristicSearch(file, Duration.ZERO);
+		SearchOptions stoppedOptions = new SearchOptions();
+		stoppedOptions.setListener(new SearchListener()
+		{
+			@Override
+			public void nodeExpanded(AbstractSearchNode node, SearchStatistics statistics)
+			{
+				if (statistics.getNodesExpanded() == expandedNodes / 2)
+				{
+					stoppedOptions.cancel();
+				}
+			}
+		});
+		assertThrows(SearchCancelledException.class, () -> search.search(puzzle, Integer.MAX_VALUE, stoppedOptions));
+		// a segment cut off while it was written
+		Files.write(file, new byte[]{0x53, 0x45, 0x47, 0x4D, 0, 0, 0, 9, 1, 2, 3}, StandardOpenOption.APPEND);
+		SearchOptions resumedOptions = new SearchOptions();
+		AbstractSearchNode resumed = search.resume(puzzle, resumedOptions);
+		assertAll(
+				() -> assertEquals(depth, uninterrupted.getNodeDepth()),
+				() -> assertTrue(resumed.inGoalState()),
+				() -> assertArrayEquals(SearchSolution.fromGoalNode(uninterrupted).getMoves(), SearchSolution.fromGoalNode(resumed).getMoves()),
+				() -> assertEquals(expandedNodes, resumedOptions.getStatistics().getNodesExpanded()),
+				() -> assertTrue(stoppedOptions.getStatistics().getNodesExpanded() < expandedNodes),
+				() -> assertThrows(java.io.IOException.class, () -> search.resume(new Puzzle(4, 200, 2), new SearchOptions()))
+		);
+	}
+
+	@DisplayName("Every open list finds the optimal solution")
+	@Test
+	void openListsFindOptimalSolutions() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(4, 200, 3);
+		SearchOptions binaryHeapOptions = new SearchOptions();
+		int depth = AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, binaryHeapOptions).getNodeDepth();
+		List<Supplier<OpenList>> factories = List.of(PairingHeapOpenList::new, () -> new BucketOpenList(true), () -> new BucketOpenList(false));
+		ArrayList<SearchOptions> options = new ArrayList<>();
+		ArrayList<AbstractSearchNode> goalNodes = new ArrayList<>();
+		for (Supplier<OpenList> factory : factories)
+		{
+			SearchOptions openListOptions = new SearchOptions().setOpenListFactory(factory);
+			options.add(openListOptions);
+			goalNodes.add(AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, openListOptions));
+		}
+		SearchOptions iteratorOptions = new SearchOptions().setOpenListFactory(() -> new BucketOpenList(true));
+		AbstractSearchNode iterated;
+		try (SearchIterator iterator = AISearch.iterateHeuristicSearch(puzzle, Integer.MAX_VALUE, iteratorOptions))
+		{
+			iterated = iterator.next();
+		}
+		long binaryHeapExpansions = binaryHeapOptions.getStatistics().getNodesExpanded();
+		assertAll(
+				() -> assertTrue(goalNodes.stream().allMatch(AbstractSearchNode::inGoalState)),
+				() -> assertTrue(goalNodes.stream().allMatch(node -> node.getNodeDepth() == depth)),
+				() -> assertEquals(depth, iterated.getNodeDepth()),
+				// every open list breaks ties towards the larger g value, so they only differ among equal f and g values
+				() -> assertTrue(options.stream().allMatch(o -> Math.abs(o.getStatistics().getNodesExpanded() - binaryHeapExpansions) < binaryHeapExpansions / 10))
+		);
+	}
+
+	@DisplayName("Greedy and guided searches are fast and seeded searches repeat")
+	@Test
+	void greedyAndSeededSearches() throws GoalNodeNotFoundException
+	{
+		Puzzle puzzle = new Puzzle(4, 200, 3);
+		SearchOptions heuristicOptions = new SearchOptions();
+		int depth = AISearch.applyHeuristicSearch(puzzle, Integer.MAX_VALUE, heuristicOptions).getNodeDepth();
+		SearchOptions greedyOptions = new SearchOptions();
+		AbstractSearchNode greedy = AISearch.applyGreedyBestFirstSearch(puzzle, Integer.MAX_VALUE, greedyOptions);
+		SearchOptions compactOptions = new SearchOptions().setCompactPaths(true).setOpenListFactory(() -> new BucketOpenList(true));
+		AbstractSearchNode compact = AISearch.applyGreedyBestFirstSearch(puzzle, Integer.MAX_VALUE, compactOptions);
+		Puzzle smallPuzzle = new Puzzle(3, 60, 5);
+		SearchOptions guidedOptions = new SearchOptions().setRandomSeed(7);
+		AbstractSearchNode guided = AISearch.applyGuidedDepthFirstSearch(smallPuzzle, true, 40, guidedOptions);
+		SearchOptions firstOptions = new SearchOptions().setRandomSeed(11);
+		AbstractSearchNode first = AISearch.applyDepthFirstSearch(smallPuzzle, true, 40, firstOptions);
+		SearchOptions secondOptions = firstOptions.copy();
+		AbstractSearchNode second = AISearch.applyDepthFirstSearch(smallPuzzle, true, 40, secondOptions);
+		assertAll(
+				() -> assertTrue(greedy.inGoalState()),
+				() -> assertTrue(greedy.getNodeDepth() >= depth),
+				() -> assertTrue(greedyOptions.getStatistics().getNodesExpanded() < heuristicOptions.getStatistics().getNodesExpanded()),
+				() -> assertTrue(compact.inGoalState()),
+				() -> assertTrue(SearchSolution.fromGoalNode(compact).replay(puzzle).inGoalState()),
+				() -> assertTrue(guided.inGoalState()),
+				() -> assertTrue(first.inGoalState()),
+				() -> assertArrayEquals(SearchSolution.fromGoalNode(first).getMoves(), SearchSolution.fromGoalNode(second).getMoves()),
+				() -> assertEquals(firstOptions.getStatistics().getNodesExpanded(), secondOptions.getStatistics().getNodesExpanded()),
+				() -> assertTrue(guidedOptions.getStatistics().getNodesExpanded() < firstOptions.getStatistics().getNodesExpanded())
+		);
+	}
+}